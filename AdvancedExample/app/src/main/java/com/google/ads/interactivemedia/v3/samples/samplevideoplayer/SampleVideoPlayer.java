@@ -4,8 +4,10 @@ package com.google.ads.interactivemedia.v3.samples.samplevideoplayer;
 
 import android.content.Context;
 import android.media.AudioManager;
+import android.media.MediaPlayer;
 import android.media.MediaPlayer.OnCompletionListener;
 import android.media.MediaPlayer.OnErrorListener;
+import android.media.MediaPlayer.OnInfoListener;
 import android.util.AttributeSet;
 import android.widget.MediaController;
 import android.widget.VideoView;
@@ -23,6 +25,7 @@ public class SampleVideoPlayer extends VideoView implements VideoPlayer {
 
   private MediaController mediaController;
   private PlaybackState playbackState;
+  private VolumeTracker volumeTracker;
   private final List<PlayerCallback> videoPlayerCallbacks = new ArrayList<>(1);
 
   public SampleVideoPlayer(Context context, AttributeSet attrs, int defStyle) {
@@ -45,6 +48,9 @@ public class SampleVideoPlayer extends VideoView implements VideoPlayer {
     mediaController = new MediaController(getContext());
     mediaController.setAnchorView(this);
     setMediaController(mediaController);
+    volumeTracker =
+        new VolumeTracker(
+            getContext(), (AudioManager) getContext().getSystemService(Context.AUDIO_SERVICE));
 
     // Set OnCompletionListener to notify our callbacks when the video is completed.
     super.setOnCompletionListener(
@@ -71,6 +77,17 @@ public class SampleVideoPlayer extends VideoView implements VideoPlayer {
           // prevent the completion handler from being called.
           return true;
         });
+
+    // Set OnInfoListener to notify our callbacks when the first video frame is rendered.
+    super.setOnInfoListener(
+        (mp, what, extra) -> {
+          if (what == MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START) {
+            for (PlayerCallback callback : videoPlayerCallbacks) {
+              callback.onRenderingStart();
+            }
+          }
+          return false;
+        });
   }
 
   @Override
@@ -80,18 +97,20 @@ public class SampleVideoPlayer extends VideoView implements VideoPlayer {
 
   @Override
   public int getVolume() {
-    // Get the system's audio service and get media volume from it.
-    AudioManager audioManager = (AudioManager) getContext().getSystemService(Context.AUDIO_SERVICE);
-    if (audioManager != null) {
-      double volume = audioManager.getStreamVolume(AudioManager.STREAM_MUSIC);
-      double max = audioManager.getStreamMaxVolume(AudioManager.STREAM_MUSIC);
-      if (max <= 0) {
-        return 0;
-      }
-      // Return a range from 0-100.
-      return (int) ((volume / max) * 100.0f);
-    }
-    return 0;
+    // The SDK asks for the volume with every progress update, so read the cached media volume.
+    return volumeTracker.getVolume();
+  }
+
+  @Override
+  protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    volumeTracker.start();
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    volumeTracker.stop();
+    super.onDetachedFromWindow();
   }
 
   @Override
@@ -106,6 +125,12 @@ public class SampleVideoPlayer extends VideoView implements VideoPlayer {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void setOnInfoListener(OnInfoListener listener) {
+    // The OnInfoListener can only be implemented by SampleVideoPlayer.
+    throw new UnsupportedOperationException();
+  }
+
   // Methods implementing the VideoPlayer interface.
   @Override
   public void play() {
@@ -17,6 +17,9 @@ public interface VideoPlayer {
     /** Called when the current video resumes playing from a paused state. */
     void onResume();
 
+    /** Called when the first frame of the current video is rendered. */
+    void onRenderingStart();
+
     /** Called when the current video has completed playback to the end of the video. */
     void onComplete();
 
@@ -0,0 +1,82 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.samplevideoplayer;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.media.AudioManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.Settings;
+
+/**
+ * Caches the media stream volume and keeps it up to date by observing system settings changes, so
+ * that reading the volume does not call into the audio service every time.
+ */
+final class VolumeTracker {
+
+  private final Context context;
+  private final AudioManager audioManager;
+  private final ContentObserver volumeObserver;
+  private boolean isTracking;
+
+  // Cached media volume as a percent of the max volume.
+  private int volume;
+
+  VolumeTracker(Context context, AudioManager audioManager) {
+    this.context = context.getApplicationContext();
+    this.audioManager = audioManager;
+    this.volumeObserver =
+        new ContentObserver(new Handler(Looper.getMainLooper())) {
+          @Override
+          public void onChange(boolean selfChange) {
+            updateVolume();
+          }
+        };
+  }
+
+  /** Starts observing volume changes. */
+  void start() {
+    if (isTracking) {
+      return;
+    }
+    isTracking = true;
+    // Volume changes, including muting the stream, are written to the system settings.
+    context
+        .getContentResolver()
+        .registerContentObserver(
+            Settings.System.CONTENT_URI, /* notifyForDescendants= */ true, volumeObserver);
+    updateVolume();
+  }
+
+  /** Stops observing volume changes. */
+  void stop() {
+    if (!isTracking) {
+      return;
+    }
+    isTracking = false;
+    context.getContentResolver().unregisterContentObserver(volumeObserver);
+  }
+
+  /** Returns the media volume as a percent of the max volume. Range is [0-100]. */
+  int getVolume() {
+    if (!isTracking) {
+      // The cached value may be stale.
+      updateVolume();
+    }
+    return volume;
+  }
+
+  private void updateVolume() {
+    if (audioManager == null || audioManager.isStreamMute(AudioManager.STREAM_MUSIC)) {
+      volume = 0;
+      return;
+    }
+    int max = audioManager.getStreamMaxVolume(AudioManager.STREAM_MUSIC);
+    if (max <= 0) {
+      volume = 0;
+      return;
+    }
+    volume = 100 * audioManager.getStreamVolume(AudioManager.STREAM_MUSIC) / max;
+  }
+}
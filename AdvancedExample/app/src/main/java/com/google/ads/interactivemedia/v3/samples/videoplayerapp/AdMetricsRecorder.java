@@ -0,0 +1,137 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import android.os.SystemClock;
+import com.google.ads.interactivemedia.v3.api.AdEvent;
+import com.google.ads.interactivemedia.v3.api.player.AdMediaInfo;
+import com.google.ads.interactivemedia.v3.api.player.VideoAdPlayer;
+import com.google.ads.interactivemedia.v3.api.player.VideoProgressUpdate;
+
+/**
+ * Measures the overhead ad breaks add to playback. The recorder is told when ads are requested and
+ * loaded, and listens to the ad events and to the video ad player, recording monotonic timestamps
+ * for each ad to derive these latencies:
+ *
+ * <ul>
+ *   <li>{@link #REQUEST_TO_LOADED}: from the ad request to the ads being loaded.
+ *   <li>{@link #LOADED_TO_STARTED}: from the ads being loaded to the first ad starting.
+ *   <li>{@link #CONTENT_PAUSE_TO_FIRST_FRAME}: from the content pausing to the first ad frame.
+ *   <li>{@link #AD_END_TO_CONTENT_RESUME}: from the last ad of a break ending to the content
+ *       resuming.
+ * </ul>
+ *
+ * <p>All methods must be called on the main thread.
+ */
+final class AdMetricsRecorder
+    implements AdEvent.AdEventListener, VideoAdPlayer.VideoAdPlayerCallback {
+
+  static final String REQUEST_TO_LOADED = "request_to_loaded";
+  static final String LOADED_TO_STARTED = "loaded_to_started";
+  static final String CONTENT_PAUSE_TO_FIRST_FRAME = "content_pause_to_first_frame";
+  static final String AD_END_TO_CONTENT_RESUME = "ad_end_to_content_resume";
+
+  /** Receives the histograms when the metrics are exported. */
+  interface Exporter {
+    void export(String metricName, LatencyHistogram histogram);
+  }
+
+  private final LatencyHistogram requestToLoaded = new LatencyHistogram();
+  private final LatencyHistogram loadedToStarted = new LatencyHistogram();
+  private final LatencyHistogram contentPauseToFirstFrame = new LatencyHistogram();
+  private final LatencyHistogram adEndToContentResume = new LatencyHistogram();
+
+  // Timestamps of the pending measurements, or 0 when there is none.
+  private long requestTimeMs;
+  private long loadedTimeMs;
+  private long contentPauseTimeMs;
+  private long adEndTimeMs;
+
+  /** Called when ads are requested. */
+  void onAdsRequested() {
+    requestTimeMs = now();
+  }
+
+  /** Called when the requested ads are loaded. */
+  void onAdsLoaded() {
+    loadedTimeMs = now();
+    requestTimeMs = record(requestToLoaded, requestTimeMs, loadedTimeMs);
+  }
+
+  @Override
+  public void onAdEvent(AdEvent adEvent) {
+    switch (adEvent.getType()) {
+      case STARTED:
+        loadedTimeMs = record(loadedToStarted, loadedTimeMs, now());
+        break;
+      case CONTENT_PAUSE_REQUESTED:
+        contentPauseTimeMs = now();
+        break;
+      case CONTENT_RESUME_REQUESTED:
+        adEndTimeMs = record(adEndToContentResume, adEndTimeMs, now());
+        break;
+      default:
+        break;
+    }
+  }
+
+  @Override
+  public void onAdProgress(AdMediaInfo adMediaInfo, VideoProgressUpdate videoProgressUpdate) {
+    // The first progress past the start of the ad shows that its first frame was rendered.
+    if (contentPauseTimeMs != 0 && videoProgressUpdate.getCurrentTimeMs() > 0) {
+      contentPauseTimeMs = record(contentPauseToFirstFrame, contentPauseTimeMs, now());
+    }
+  }
+
+  @Override
+  public void onEnded(AdMediaInfo adMediaInfo) {
+    // Overwritten by each ad of the break, so the last ad's end is measured.
+    adEndTimeMs = now();
+  }
+
+  @Override
+  public void onError(AdMediaInfo adMediaInfo) {
+    adEndTimeMs = now();
+  }
+
+  @Override
+  public void onBuffering(AdMediaInfo adMediaInfo) {}
+
+  @Override
+  public void onContentComplete() {}
+
+  @Override
+  public void onLoaded(AdMediaInfo adMediaInfo) {}
+
+  @Override
+  public void onPause(AdMediaInfo adMediaInfo) {}
+
+  @Override
+  public void onPlay(AdMediaInfo adMediaInfo) {}
+
+  @Override
+  public void onResume(AdMediaInfo adMediaInfo) {}
+
+  @Override
+  public void onVolumeChanged(AdMediaInfo adMediaInfo, int percentage) {}
+
+  /** Passes each histogram to the exporter, for example to log or upload them. */
+  void export(Exporter exporter) {
+    exporter.export(REQUEST_TO_LOADED, requestToLoaded);
+    exporter.export(LOADED_TO_STARTED, loadedToStarted);
+    exporter.export(CONTENT_PAUSE_TO_FIRST_FRAME, contentPauseToFirstFrame);
+    exporter.export(AD_END_TO_CONTENT_RESUME, adEndToContentResume);
+  }
+
+  /** Records the latency since {@code startTimeMs}, if set, and returns 0 to clear it. */
+  private static long record(LatencyHistogram histogram, long startTimeMs, long endTimeMs) {
+    if (startTimeMs != 0) {
+      histogram.record(endTimeMs - startTimeMs);
+    }
+    return 0;
+  }
+
+  private static long now() {
+    return SystemClock.elapsedRealtime();
+  }
+}
@@ -0,0 +1,84 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import com.google.ads.interactivemedia.v3.api.player.VideoProgressUpdate;
+
+/**
+ * Reports ad progress from the main looper. The update period adapts to the ad duration and lines
+ * up with quartile boundaries, and a single tracker is reused for every ad played by the player.
+ */
+final class AdProgressTracker implements Handler.Callback {
+
+  /** Supplies the current ad progress and receives the updates to report. */
+  interface ProgressListener {
+
+    /** Returns the current progress of the playing ad. */
+    VideoProgressUpdate getAdProgress();
+
+    /** Called on the main thread with each progress update to report. */
+    void onAdProgress(VideoProgressUpdate progressUpdate);
+  }
+
+  private static final int UPDATE = 0;
+
+  // Number of updates sent within each quartile of the ad.
+  private static final int UPDATES_PER_QUARTILE = 5;
+
+  // Bounds for the update period. Short ads are updated more often, so quartile events are not
+  // reported late, while long ads are not woken up more often than needed.
+  private static final long MIN_UPDATE_PERIOD_MS = 100;
+  private static final long MAX_UPDATE_PERIOD_MS = 1000;
+
+  private final Handler messageHandler;
+  private final ProgressListener listener;
+
+  AdProgressTracker(ProgressListener listener) {
+    this.messageHandler = new Handler(Looper.getMainLooper(), this);
+    this.listener = listener;
+  }
+
+  @Override
+  public boolean handleMessage(Message msg) {
+    if (msg.what != UPDATE) {
+      return false;
+    }
+    VideoProgressUpdate progressUpdate = listener.getAdProgress();
+    listener.onAdProgress(progressUpdate);
+    messageHandler.sendEmptyMessageDelayed(UPDATE, getUpdateDelayMs(progressUpdate));
+    return true;
+  }
+
+  /** Sends a progress update immediately and keeps sending updates until {@link #stop()}. */
+  void start() {
+    messageHandler.removeMessages(UPDATE);
+    messageHandler.sendEmptyMessage(UPDATE);
+  }
+
+  /** Stops sending progress updates. */
+  void stop() {
+    messageHandler.removeMessages(UPDATE);
+  }
+
+  /** Returns the delay before the update following {@code progressUpdate} should be sent. */
+  static long getUpdateDelayMs(VideoProgressUpdate progressUpdate) {
+    long durationMs = progressUpdate.getDurationMs();
+    long positionMs = progressUpdate.getCurrentTimeMs();
+    if (durationMs <= 0 || positionMs < 0) {
+      // The ad is still preparing, check back soon.
+      return MIN_UPDATE_PERIOD_MS;
+    }
+    long quartileMs = durationMs / 4;
+    long delayMs = quartileMs / UPDATES_PER_QUARTILE;
+    delayMs = Math.max(MIN_UPDATE_PERIOD_MS, Math.min(MAX_UPDATE_PERIOD_MS, delayMs));
+    if (quartileMs > 0) {
+      // Wake up right on the next quartile boundary instead of overshooting it.
+      long untilNextQuartileMs = quartileMs - (positionMs % quartileMs);
+      delayMs = Math.min(delayMs, untilNextQuartileMs);
+    }
+    return delayMs;
+  }
+}
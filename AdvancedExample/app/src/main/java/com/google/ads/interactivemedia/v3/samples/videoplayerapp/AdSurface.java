@@ -0,0 +1,248 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import com.google.ads.interactivemedia.v3.api.AdDisplayContainer;
+import com.google.ads.interactivemedia.v3.api.AdPodInfo;
+import com.google.ads.interactivemedia.v3.api.AdsLoader;
+import com.google.ads.interactivemedia.v3.api.ImaSdkFactory;
+import com.google.ads.interactivemedia.v3.api.ImaSdkSettings;
+import com.google.ads.interactivemedia.v3.api.player.AdMediaInfo;
+import com.google.ads.interactivemedia.v3.api.player.VideoAdPlayer;
+import com.google.ads.interactivemedia.v3.api.player.VideoProgressUpdate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ad display container and ads loader for one player surface. The ad display container can't
+ * be pointed at new views, so it is built on an ad UI container and video ad player owned by the
+ * surface, which are then bound to whichever {@link VideoPlayerWithAdPlayback} currently shows the
+ * surface. The companion ad slots are owned by the surface for the same reason, and are shown in
+ * the companion container of the current player.
+ *
+ * <p>The ad UI container and companion slots are created from the context of the player they are
+ * bound to, so ad UI gets the theme and window of its activity. If a player of another activity is
+ * bound, they are created again along with the ad display container and ads loader built on them.
+ */
+final class AdSurface {
+
+  private final Context context;
+  private final DelegatingVideoAdPlayer videoAdPlayer = new DelegatingVideoAdPlayer();
+  // Created from the context of the bound player. Null until a player is first bound.
+  private FrameLayout adUiContainer;
+  private CompanionSlotManager companionSlots;
+  private AdDisplayContainer adDisplayContainer;
+  private AdsLoader adsLoader;
+  private VideoPlayerWithAdPlayback boundPlayer;
+
+  // Number of holders of the surface, maintained by AdsLoaderManager.
+  int referenceCount;
+
+  AdSurface(Context context) {
+    this.context = context;
+  }
+
+  /** Shows the ad UI in the given player and sends ad playback to it. */
+  void bind(VideoPlayerWithAdPlayback player) {
+    bind(player, player.getVideoAdPlayer());
+  }
+
+  /**
+   * Shows the ad UI in the given player and sends ad playback to {@code videoAdPlayer}, which
+   * wraps the player's video ad player.
+   */
+  void bind(VideoPlayerWithAdPlayback player, VideoAdPlayer videoAdPlayer) {
+    if (boundPlayer != null) {
+      unbind(boundPlayer);
+    }
+    if (adUiContainer != null && adUiContainer.getContext() != player.getContext()) {
+      // The views belong to another activity.
+      releaseViews();
+    }
+    if (adUiContainer == null) {
+      adUiContainer = new FrameLayout(player.getContext());
+      // Only companion sizes that fit a phone screen in portrait are registered.
+      companionSlots =
+          new CompanionSlotManager(player.getContext()).addSlot(300, 250).addSlot(320, 50);
+    }
+    boundPlayer = player;
+    player
+        .getAdUiContainer()
+        .addView(
+            adUiContainer,
+            ViewGroup.LayoutParams.MATCH_PARENT,
+            ViewGroup.LayoutParams.MATCH_PARENT);
+    this.videoAdPlayer.setTarget(videoAdPlayer);
+  }
+
+  /** Detaches the surface from the given player if it is bound to it. */
+  void unbind(VideoPlayerWithAdPlayback player) {
+    if (boundPlayer != player) {
+      return;
+    }
+    boundPlayer = null;
+    player.getAdUiContainer().removeView(adUiContainer);
+    videoAdPlayer.setTarget(null);
+  }
+
+  /** Shows the companion ad slots of the surface in the given container. */
+  void bindCompanions(ViewGroup companionContainer) {
+    View companionView = companionSlots.getView();
+    if (companionView.getParent() instanceof ViewGroup) {
+      ((ViewGroup) companionView.getParent()).removeView(companionView);
+    }
+    companionContainer.addView(
+        companionView, ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+  }
+
+  /** Removes the companion ad slots from the given container if they are shown in it. */
+  void unbindCompanions(ViewGroup companionContainer) {
+    companionContainer.removeView(companionSlots.getView());
+  }
+
+  /**
+   * Returns the companion ad slots, which must receive the events of the ads managers. A player
+   * must be bound first.
+   */
+  CompanionSlotManager getCompanionSlotManager() {
+    return companionSlots;
+  }
+
+  /** Returns if the ads loader of the surface has already been created. */
+  boolean hasAdsLoader() {
+    return adsLoader != null;
+  }
+
+  /**
+   * Returns the ads loader of the surface, creating it on first use. A player must be bound first.
+   */
+  AdsLoader getAdsLoader(ImaSdkSettings imaSdkSettings) {
+    if (adsLoader == null) {
+      adDisplayContainer = ImaSdkFactory.createAdDisplayContainer(adUiContainer, videoAdPlayer);
+      adDisplayContainer.setCompanionSlots(companionSlots.getCompanionAdSlots());
+      adsLoader =
+          ImaSdkFactory.getInstance()
+              .createAdsLoader(context, imaSdkSettings, adDisplayContainer);
+    }
+    return adsLoader;
+  }
+
+  /** Returns the ad display container of the surface, or null if no ads loader was created. */
+  AdDisplayContainer getAdDisplayContainer() {
+    return adDisplayContainer;
+  }
+
+  void release() {
+    if (boundPlayer != null) {
+      unbind(boundPlayer);
+    }
+    if (adUiContainer != null) {
+      releaseViews();
+    }
+  }
+
+  /** Drops the views of the surface, along with the ad display container and ads loader. */
+  private void releaseViews() {
+    View companionView = companionSlots.getView();
+    if (companionView.getParent() instanceof ViewGroup) {
+      ((ViewGroup) companionView.getParent()).removeView(companionView);
+    }
+    companionSlots.setListener(null);
+    companionSlots = null;
+    adUiContainer = null;
+    if (adsLoader != null) {
+      adsLoader.release();
+      adsLoader = null;
+    }
+    if (adDisplayContainer != null) {
+      adDisplayContainer.destroy();
+      adDisplayContainer = null;
+    }
+  }
+
+  /** Forwards the SDK's calls to the video ad player of the currently bound player. */
+  private static final class DelegatingVideoAdPlayer implements VideoAdPlayer {
+
+    private final List<VideoAdPlayerCallback> callbacks = new ArrayList<>(1);
+    private VideoAdPlayer target;
+
+    void setTarget(VideoAdPlayer target) {
+      if (this.target != null) {
+        for (VideoAdPlayerCallback callback : callbacks) {
+          this.target.removeCallback(callback);
+        }
+      }
+      this.target = target;
+      if (target != null) {
+        for (VideoAdPlayerCallback callback : callbacks) {
+          target.addCallback(callback);
+        }
+      }
+    }
+
+    @Override
+    public void addCallback(VideoAdPlayerCallback callback) {
+      callbacks.add(callback);
+      if (target != null) {
+        target.addCallback(callback);
+      }
+    }
+
+    @Override
+    public void removeCallback(VideoAdPlayerCallback callback) {
+      callbacks.remove(callback);
+      if (target != null) {
+        target.removeCallback(callback);
+      }
+    }
+
+    @Override
+    public void loadAd(AdMediaInfo adMediaInfo, AdPodInfo adPodInfo) {
+      if (target != null) {
+        target.loadAd(adMediaInfo, adPodInfo);
+      }
+    }
+
+    @Override
+    public void playAd(AdMediaInfo adMediaInfo) {
+      if (target != null) {
+        target.playAd(adMediaInfo);
+      }
+    }
+
+    @Override
+    public void pauseAd(AdMediaInfo adMediaInfo) {
+      if (target != null) {
+        target.pauseAd(adMediaInfo);
+      }
+    }
+
+    @Override
+    public void stopAd(AdMediaInfo adMediaInfo) {
+      if (target != null) {
+        target.stopAd(adMediaInfo);
+      }
+    }
+
+    @Override
+    public void release() {
+      if (target != null) {
+        target.release();
+      }
+    }
+
+    @Override
+    public VideoProgressUpdate getAdProgress() {
+      return target == null ? VideoProgressUpdate.VIDEO_TIME_NOT_READY : target.getAdProgress();
+    }
+
+    @Override
+    public int getVolume() {
+      return target == null ? 0 : target.getVolume();
+    }
+  }
+}
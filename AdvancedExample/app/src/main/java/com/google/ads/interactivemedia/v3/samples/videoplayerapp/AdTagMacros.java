@@ -0,0 +1,109 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.util.DisplayMetrics;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Values of the macros supported in ad tag URLs:
+ *
+ * <ul>
+ *   <li>{@code [CORRELATOR]}: a random number, different for each ad request.
+ *   <li>{@code [CONTENT_ID]}: the URL of the content video the ads are for.
+ *   <li>{@code [CONTENT_POSITION_MS]}: the position in the content video, in milliseconds.
+ *   <li>{@code [CONSENT_STRING]}: the IAB TCF consent string stored by the consent management
+ *       platform, if any.
+ *   <li>{@code [SCREEN_WIDTH]} and {@code [SCREEN_HEIGHT]}: the screen size in pixels.
+ *   <li>{@code [LANGUAGE]}: the language of the device.
+ * </ul>
+ */
+final class AdTagMacros implements AdTagTemplate.MacroResolver {
+
+  // Key under which consent management platforms store the TCF consent string.
+  private static final String TC_STRING_KEY = "IABTCF_TCString";
+
+  private final Random random = new Random();
+  private final SharedPreferences preferences;
+  // Held in a field, since shared preferences only keep weak references to their listeners.
+  private final SharedPreferences.OnSharedPreferenceChangeListener preferencesListener;
+  private final int screenWidthPx;
+  private final int screenHeightPx;
+  private final String language;
+
+  private long correlator;
+  private String contentId;
+  private long contentPositionMs;
+
+  // The consent string, read from the preferences again only after it changes.
+  private String consentString;
+  private boolean isConsentStringRead;
+
+  AdTagMacros(Context context) {
+    // Consent management platforms store the consent string in the default shared preferences.
+    preferences =
+        context.getSharedPreferences(
+            context.getPackageName() + "_preferences", Context.MODE_PRIVATE);
+    preferencesListener =
+        (sharedPreferences, key) -> {
+          if (key == null || key.equals(TC_STRING_KEY)) {
+            isConsentStringRead = false;
+          }
+        };
+    preferences.registerOnSharedPreferenceChangeListener(preferencesListener);
+    DisplayMetrics displayMetrics = context.getResources().getDisplayMetrics();
+    screenWidthPx = displayMetrics.widthPixels;
+    screenHeightPx = displayMetrics.heightPixels;
+    language = Locale.getDefault().getLanguage();
+  }
+
+  /**
+   * Sets the values for the next ad request and picks a new correlator.
+   *
+   * @param contentId the content the ads are for, or null if it isn't known
+   * @param contentPositionMs the position in the content
+   */
+  void prepareRequest(String contentId, long contentPositionMs) {
+    this.correlator = random.nextLong() & Long.MAX_VALUE;
+    this.contentId = contentId;
+    this.contentPositionMs = contentPositionMs;
+  }
+
+  /** Stops listening for consent changes. */
+  void release() {
+    preferences.unregisterOnSharedPreferenceChangeListener(preferencesListener);
+  }
+
+  @Override
+  public boolean appendValue(String macro, StringBuilder out) {
+    switch (macro) {
+      case "CORRELATOR" -> out.append(correlator);
+      case "CONTENT_ID" -> {
+        if (contentId != null) {
+          out.append(Uri.encode(contentId));
+        }
+      }
+      case "CONTENT_POSITION_MS" -> out.append(contentPositionMs);
+      case "CONSENT_STRING" -> {
+        if (!isConsentStringRead) {
+          consentString = preferences.getString(TC_STRING_KEY, null);
+          isConsentStringRead = true;
+        }
+        if (consentString != null) {
+          out.append(Uri.encode(consentString));
+        }
+      }
+      case "SCREEN_WIDTH" -> out.append(screenWidthPx);
+      case "SCREEN_HEIGHT" -> out.append(screenHeightPx);
+      case "LANGUAGE" -> out.append(language);
+      default -> {
+        return false;
+      }
+    }
+    return true;
+  }
+}
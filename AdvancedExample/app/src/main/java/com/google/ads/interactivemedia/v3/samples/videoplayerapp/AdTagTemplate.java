@@ -0,0 +1,93 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ad tag URL with macros, such as {@code correlator=[CORRELATOR]}, that are filled in for each ad
+ * request. The template is split into literal text and macros once when it is compiled, so
+ * expanding it for a request only appends the pieces to a reused buffer.
+ */
+final class AdTagTemplate {
+
+  /** Supplies the values of the macros. */
+  interface MacroResolver {
+
+    /**
+     * Appends the URL encoded value of a macro to {@code out}.
+     *
+     * @param macro the name of the macro, without brackets
+     * @param out the buffer to append to
+     * @return whether the macro is known. Unknown macros are left in the URL as is
+     */
+    boolean appendValue(String macro, StringBuilder out);
+  }
+
+  // The template alternates between literal text and macro names, starting with literal text.
+  private final String[] tokens;
+  private final StringBuilder buffer;
+
+  private AdTagTemplate(String[] tokens, int expectedLength) {
+    this.tokens = tokens;
+    this.buffer = new StringBuilder(expectedLength);
+  }
+
+  /**
+   * Compiles a template. Macros are upper case names in square brackets, made of letters, digits
+   * and underscores. Any other text is kept as is.
+   */
+  static AdTagTemplate compile(String template) {
+    List<String> tokens = new ArrayList<>();
+    int literalStart = 0;
+    int position = 0;
+    while (position < template.length()) {
+      int macroEnd = template.charAt(position) == '[' ? findMacroEnd(template, position) : -1;
+      if (macroEnd == -1) {
+        position++;
+        continue;
+      }
+      tokens.add(template.substring(literalStart, position));
+      tokens.add(template.substring(position + 1, macroEnd));
+      position = macroEnd + 1;
+      literalStart = position;
+    }
+    tokens.add(template.substring(literalStart));
+    return new AdTagTemplate(tokens.toArray(new String[0]), template.length());
+  }
+
+  /** Returns whether the template has any macros to expand. */
+  boolean hasMacros() {
+    return tokens.length > 1;
+  }
+
+  /** Returns the ad tag URL with its macros expanded. Must be called on a single thread. */
+  String expand(MacroResolver resolver) {
+    buffer.setLength(0);
+    for (int i = 0; i < tokens.length; i++) {
+      String token = tokens[i];
+      boolean isMacro = i % 2 == 1;
+      if (!isMacro) {
+        buffer.append(token);
+      } else if (!resolver.appendValue(token, buffer)) {
+        buffer.append('[').append(token).append(']');
+      }
+    }
+    return buffer.toString();
+  }
+
+  /** Returns the index of the bracket closing the macro opened at {@code start}, or -1. */
+  private static int findMacroEnd(String template, int start) {
+    for (int i = start + 1; i < template.length(); i++) {
+      char c = template.charAt(i);
+      if (c == ']') {
+        return i > start + 1 ? i : -1;
+      }
+      if (!(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9') && c != '_') {
+        return -1;
+      }
+    }
+    return -1;
+  }
+}
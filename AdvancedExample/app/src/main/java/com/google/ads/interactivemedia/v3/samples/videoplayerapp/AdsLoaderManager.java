@@ -0,0 +1,53 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import android.content.Context;
+import android.util.SparseArray;
+
+/**
+ * Process-wide owner of the {@link AdSurface} of each player surface in the app. Surfaces are
+ * reference counted, so their ads loader outlives the fragments that use it and is reused across
+ * videos and fragment recreations, and is released once no one holds the surface anymore.
+ */
+final class AdsLoaderManager {
+
+  private static final AdsLoaderManager instance = new AdsLoaderManager();
+
+  private final SparseArray<AdSurface> surfaces = new SparseArray<>();
+
+  private AdsLoaderManager() {}
+
+  static AdsLoaderManager getInstance() {
+    return instance;
+  }
+
+  /**
+   * Returns the surface for the player with the given view ID, creating it if needed. Each call
+   * must be balanced by a call to {@link #release(int)}.
+   */
+  AdSurface acquire(Context context, int surfaceId) {
+    AdSurface surface = surfaces.get(surfaceId);
+    if (surface == null) {
+      // The surface outlives fragments, so it only keeps the application context. Its views are
+      // created from the context of the player they are bound to.
+      surface = new AdSurface(context.getApplicationContext());
+      surfaces.put(surfaceId, surface);
+    }
+    surface.referenceCount++;
+    return surface;
+  }
+
+  /** Releases a reference to the surface, releasing its ads loader if it was the last one. */
+  void release(int surfaceId) {
+    AdSurface surface = surfaces.get(surfaceId);
+    if (surface == null) {
+      return;
+    }
+    surface.referenceCount--;
+    if (surface.referenceCount == 0) {
+      surface.release();
+      surfaces.remove(surfaceId);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import android.os.SystemClock;
+import com.google.ads.interactivemedia.v3.api.AdsManager;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds ads managers that were loaded ahead of playback, keyed by ad tag URL. Entries expire after
+ * a fixed time, since the ads they hold can't be served indefinitely, and the oldest entry is
+ * dropped when the pool is full.
+ */
+final class AdsManagerPool {
+
+  private static final class Entry {
+    final AdsManager adsManager;
+    final long loadedTimeMs;
+
+    Entry(AdsManager adsManager, long loadedTimeMs) {
+      this.adsManager = adsManager;
+      this.loadedTimeMs = loadedTimeMs;
+    }
+  }
+
+  private final int capacity;
+  private final long timeToLiveMs;
+
+  // Insertion ordered, so the first entry is the oldest.
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+  AdsManagerPool(int capacity, long timeToLiveMs) {
+    this.capacity = capacity;
+    this.timeToLiveMs = timeToLiveMs;
+  }
+
+  /** Adds an ads manager for the given ad tag URL, replacing any previous one. */
+  void put(String adTagUrl, AdsManager adsManager) {
+    Entry previous = entries.remove(adTagUrl);
+    if (previous != null) {
+      previous.adsManager.destroy();
+    }
+    removeExpired();
+    while (entries.size() >= capacity) {
+      Iterator<Entry> iterator = entries.values().iterator();
+      iterator.next().adsManager.destroy();
+      iterator.remove();
+    }
+    entries.put(adTagUrl, new Entry(adsManager, SystemClock.elapsedRealtime()));
+  }
+
+  /** Returns if an unexpired ads manager is available for the given ad tag URL. */
+  boolean contains(String adTagUrl) {
+    removeExpired();
+    return entries.containsKey(adTagUrl);
+  }
+
+  /**
+   * Removes and returns the ads manager for the given ad tag URL, or null if none is available.
+   * The caller becomes responsible for destroying it.
+   */
+  AdsManager take(String adTagUrl) {
+    removeExpired();
+    Entry entry = entries.remove(adTagUrl);
+    return entry == null ? null : entry.adsManager;
+  }
+
+  /** Destroys all the ads managers in the pool. */
+  void clear() {
+    for (Entry entry : entries.values()) {
+      entry.adsManager.destroy();
+    }
+    entries.clear();
+  }
+
+  private void removeExpired() {
+    long nowMs = SystemClock.elapsedRealtime();
+    Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next().getValue();
+      if (nowMs - entry.loadedTimeMs > timeToLiveMs) {
+        entry.adsManager.destroy();
+        iterator.remove();
+      }
+    }
+  }
+}
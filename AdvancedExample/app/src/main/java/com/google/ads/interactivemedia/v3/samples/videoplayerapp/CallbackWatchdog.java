@@ -0,0 +1,149 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import com.google.ads.interactivemedia.v3.api.AdEvent;
+import com.google.ads.interactivemedia.v3.api.AdPodInfo;
+import com.google.ads.interactivemedia.v3.api.player.AdMediaInfo;
+import com.google.ads.interactivemedia.v3.api.player.ContentProgressProvider;
+import com.google.ads.interactivemedia.v3.api.player.VideoAdPlayer;
+import com.google.ads.interactivemedia.v3.api.player.VideoProgressUpdate;
+
+/**
+ * Times the callbacks the IMA SDK makes into the app on the main thread, and reports the ones that
+ * take longer than a threshold. Slow callbacks drop frames, so the reports show which integration
+ * points cause jank during ad transitions. Wrap the video ad player and listeners with {@code
+ * wrap()} to time them.
+ */
+final class CallbackWatchdog {
+
+  /** Default threshold, the duration of a frame at 60 fps. */
+  static final long DEFAULT_THRESHOLD_MS = 16;
+
+  /** Receives the callbacks that took longer than the threshold. */
+  interface Reporter {
+
+    /**
+     * Called after a slow callback returns.
+     *
+     * @param callbackName the name of the callback
+     * @param adMediaInfo the ad the callback was for, or null if it wasn't for an ad
+     * @param durationMs how long the callback took
+     */
+    void onSlowCallback(String callbackName, AdMediaInfo adMediaInfo, long durationMs);
+  }
+
+  private final long thresholdMs;
+  private final Reporter reporter;
+
+  CallbackWatchdog(long thresholdMs, Reporter reporter) {
+    this.thresholdMs = thresholdMs;
+    this.reporter = reporter;
+  }
+
+  VideoAdPlayer wrap(VideoAdPlayer videoAdPlayer) {
+    return new TimedVideoAdPlayer(videoAdPlayer);
+  }
+
+  AdEvent.AdEventListener wrap(AdEvent.AdEventListener listener) {
+    return adEvent -> {
+      long startTimeNs = System.nanoTime();
+      listener.onAdEvent(adEvent);
+      long durationMs = getDurationMs(startTimeNs);
+      if (durationMs > thresholdMs) {
+        reporter.onSlowCallback("onAdEvent(" + adEvent.getType() + ")", null, durationMs);
+      }
+    };
+  }
+
+  ContentProgressProvider wrap(ContentProgressProvider contentProgressProvider) {
+    return () -> {
+      long startTimeNs = System.nanoTime();
+      VideoProgressUpdate progressUpdate = contentProgressProvider.getContentProgress();
+      report("getContentProgress", null, startTimeNs);
+      return progressUpdate;
+    };
+  }
+
+  private void report(String callbackName, AdMediaInfo adMediaInfo, long startTimeNs) {
+    long durationMs = getDurationMs(startTimeNs);
+    if (durationMs > thresholdMs) {
+      reporter.onSlowCallback(callbackName, adMediaInfo, durationMs);
+    }
+  }
+
+  private static long getDurationMs(long startTimeNs) {
+    return (System.nanoTime() - startTimeNs) / 1_000_000;
+  }
+
+  /** Times each call into the wrapped video ad player. */
+  private final class TimedVideoAdPlayer implements VideoAdPlayer {
+
+    private final VideoAdPlayer videoAdPlayer;
+
+    TimedVideoAdPlayer(VideoAdPlayer videoAdPlayer) {
+      this.videoAdPlayer = videoAdPlayer;
+    }
+
+    @Override
+    public void loadAd(AdMediaInfo adMediaInfo, AdPodInfo adPodInfo) {
+      long startTimeNs = System.nanoTime();
+      videoAdPlayer.loadAd(adMediaInfo, adPodInfo);
+      report("loadAd", adMediaInfo, startTimeNs);
+    }
+
+    @Override
+    public void playAd(AdMediaInfo adMediaInfo) {
+      long startTimeNs = System.nanoTime();
+      videoAdPlayer.playAd(adMediaInfo);
+      report("playAd", adMediaInfo, startTimeNs);
+    }
+
+    @Override
+    public void pauseAd(AdMediaInfo adMediaInfo) {
+      long startTimeNs = System.nanoTime();
+      videoAdPlayer.pauseAd(adMediaInfo);
+      report("pauseAd", adMediaInfo, startTimeNs);
+    }
+
+    @Override
+    public void stopAd(AdMediaInfo adMediaInfo) {
+      long startTimeNs = System.nanoTime();
+      videoAdPlayer.stopAd(adMediaInfo);
+      report("stopAd", adMediaInfo, startTimeNs);
+    }
+
+    @Override
+    public void release() {
+      long startTimeNs = System.nanoTime();
+      videoAdPlayer.release();
+      report("release", null, startTimeNs);
+    }
+
+    @Override
+    public VideoProgressUpdate getAdProgress() {
+      long startTimeNs = System.nanoTime();
+      VideoProgressUpdate progressUpdate = videoAdPlayer.getAdProgress();
+      report("getAdProgress", null, startTimeNs);
+      return progressUpdate;
+    }
+
+    @Override
+    public int getVolume() {
+      long startTimeNs = System.nanoTime();
+      int volume = videoAdPlayer.getVolume();
+      report("getVolume", null, startTimeNs);
+      return volume;
+    }
+
+    @Override
+    public void addCallback(VideoAdPlayerCallback callback) {
+      videoAdPlayer.addCallback(callback);
+    }
+
+    @Override
+    public void removeCallback(VideoAdPlayerCallback callback) {
+      videoAdPlayer.removeCallback(callback);
+    }
+  }
+}
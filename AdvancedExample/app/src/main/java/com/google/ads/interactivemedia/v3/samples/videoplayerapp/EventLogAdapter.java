@@ -0,0 +1,103 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import android.view.Choreographer;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows an {@link EventLog} in a {@link RecyclerView}. Messages logged within the same frame are
+ * added to the list together on the next frame, so a burst of events causes a single update of the
+ * list, and only the visible messages are laid out.
+ */
+final class EventLogAdapter extends RecyclerView.Adapter<EventLogAdapter.ViewHolder>
+    implements Choreographer.FrameCallback {
+
+  /** Default number of messages kept in the log. */
+  static final int DEFAULT_CAPACITY = 200;
+
+  static final class ViewHolder extends RecyclerView.ViewHolder {
+    final TextView messageView;
+
+    ViewHolder(TextView messageView) {
+      super(messageView);
+      this.messageView = messageView;
+    }
+  }
+
+  private final EventLog eventLog;
+  private final List<String> pendingMessages = new ArrayList<>();
+  private RecyclerView recyclerView;
+  private boolean isFlushScheduled;
+
+  EventLogAdapter(int capacity) {
+    eventLog = new EventLog(capacity);
+  }
+
+  /** Logs a message, which is shown from the next frame. Must be called on the main thread. */
+  void log(String message) {
+    pendingMessages.add(message);
+    if (!isFlushScheduled) {
+      isFlushScheduled = true;
+      Choreographer.getInstance().postFrameCallback(this);
+    }
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    isFlushScheduled = false;
+    int previousSize = eventLog.size();
+    int droppedCount = 0;
+    for (int i = 0; i < pendingMessages.size(); i++) {
+      if (eventLog.add(pendingMessages.get(i))) {
+        droppedCount++;
+      }
+    }
+    pendingMessages.clear();
+    // The dropped messages can be more than were shown, if the burst was larger than the log.
+    int removedCount = Math.min(droppedCount, previousSize);
+    if (removedCount > 0) {
+      notifyItemRangeRemoved(0, removedCount);
+    }
+    int insertedCount = eventLog.size() - (previousSize - removedCount);
+    notifyItemRangeInserted(eventLog.size() - insertedCount, insertedCount);
+    if (recyclerView != null) {
+      recyclerView.scrollToPosition(eventLog.size() - 1);
+    }
+  }
+
+  @Override
+  public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+    this.recyclerView = recyclerView;
+  }
+
+  @Override
+  public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+    this.recyclerView = null;
+  }
+
+  @NonNull
+  @Override
+  public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+    TextView messageView =
+        (TextView)
+            LayoutInflater.from(parent.getContext()).inflate(R.layout.log_item, parent, false);
+    return new ViewHolder(messageView);
+  }
+
+  @Override
+  public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+    holder.messageView.setText(eventLog.get(position));
+  }
+
+  @Override
+  public int getItemCount() {
+    return eventLog.size();
+  }
+}
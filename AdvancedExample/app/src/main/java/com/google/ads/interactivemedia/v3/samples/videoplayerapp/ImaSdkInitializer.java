@@ -0,0 +1,60 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.startup.Initializer;
+import com.google.ads.interactivemedia.v3.api.ImaSdkFactory;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Schedules the IMA SDK initialization when the app starts, without running it during startup
+ * itself. The SDK has to be initialized on the main thread, so the initialization is run once the
+ * main thread's message queue is first idle. That is usually, but not necessarily, after the first
+ * frame. Code that needs the SDK before then calls {@link #ensureInitialized(Context)}, which
+ * initializes it right away.
+ */
+public final class ImaSdkInitializer implements Initializer<Void> {
+
+  private static final String TAG = "ImaExample";
+
+  private static boolean isInitialized;
+
+  @NonNull
+  @Override
+  public Void create(@NonNull Context context) {
+    Context applicationContext = context.getApplicationContext();
+    Looper.getMainLooper()
+        .getQueue()
+        .addIdleHandler(
+            () -> {
+              ensureInitialized(applicationContext);
+              // Only run once.
+              return false;
+            });
+    return null;
+  }
+
+  @NonNull
+  @Override
+  public List<Class<? extends Initializer<?>>> dependencies() {
+    return Collections.emptyList();
+  }
+
+  /** Initializes the IMA SDK if it isn't yet. Must be called on the main thread. */
+  static void ensureInitialized(Context context) {
+    if (isInitialized) {
+      return;
+    }
+    isInitialized = true;
+    long startTimeMs = SystemClock.elapsedRealtime();
+    ImaSdkFactory.getInstance()
+        .initialize(context.getApplicationContext(), MyActivity.getImaSdkSettings());
+    Log.d(TAG, "IMA SDK initialized in " + (SystemClock.elapsedRealtime() - startTimeMs) + " ms");
+  }
+}
@@ -0,0 +1,228 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.JsonReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Playlist read from a JSON feed, in the form {@code [{"title": ..., "videoUrl": ..., "adTagUrl":
+ * ..., "isVmap": ...}, ...]}. The feed is parsed as it streams in on a background thread, and its
+ * videos are delivered a page at a time, so the first videos are shown long before a large feed is
+ * fully read.
+ *
+ * <p>The downloaded feed is saved as a snapshot on disk. While the snapshot is recent, the playlist
+ * is read from it instead of the network, which makes warm starts fast. An older snapshot is still
+ * used if the feed can't be downloaded.
+ */
+final class JsonPlaylistSource implements PlaylistSource {
+
+  /** Default number of videos delivered at a time. */
+  static final int DEFAULT_PAGE_SIZE = 50;
+
+  // How long a snapshot is used before the feed is downloaded again.
+  private static final long SNAPSHOT_MAX_AGE_MS = 60 * 60 * 1000;
+
+  private static final int TIMEOUT_MS = 10_000;
+
+  private final String feedUrl;
+  private final File snapshotFile;
+  private final int pageSize;
+  private final int thumbnailResourceId;
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private volatile boolean isCanceled;
+  // Whether any videos were delivered, only accessed on the background thread.
+  private boolean hasDeliveredVideos;
+
+  /**
+   * @param feedUrl the URL of the JSON feed
+   * @param snapshotFile the file to save the downloaded feed to
+   * @param pageSize the number of videos to deliver at a time
+   * @param thumbnailResourceId the thumbnail to show for the videos of the feed
+   */
+  JsonPlaylistSource(String feedUrl, File snapshotFile, int pageSize, int thumbnailResourceId) {
+    this.feedUrl = feedUrl;
+    this.snapshotFile = snapshotFile;
+    this.pageSize = pageSize;
+    this.thumbnailResourceId = thumbnailResourceId;
+  }
+
+  @Override
+  public void load(Listener listener) {
+    executor.execute(
+        () -> {
+          try {
+            long snapshotAgeMs = System.currentTimeMillis() - snapshotFile.lastModified();
+            if (snapshotFile.exists() && snapshotAgeMs < SNAPSHOT_MAX_AGE_MS) {
+              parseSnapshot(listener);
+            } else {
+              try {
+                downloadAndParse(listener);
+              } catch (IOException e) {
+                // Fall back to the old snapshot, unless part of the feed was already delivered.
+                if (!snapshotFile.exists() || hasDeliveredVideos) {
+                  throw e;
+                }
+                parseSnapshot(listener);
+              }
+            }
+            post(listener::onComplete);
+          } catch (IOException | RuntimeException e) {
+            // JsonReader throws runtime exceptions for some malformed feeds.
+            post(() -> listener.onError(e));
+          }
+        });
+  }
+
+  @Override
+  public void cancel() {
+    isCanceled = true;
+    executor.shutdownNow();
+    mainHandler.removeCallbacksAndMessages(null);
+  }
+
+  private void parseSnapshot(Listener listener) throws IOException {
+    try (InputStream inputStream = new FileInputStream(snapshotFile)) {
+      parse(inputStream, listener);
+    }
+  }
+
+  /** Parses the feed while it downloads, saving it as the new snapshot if it was fully read. */
+  private void downloadAndParse(Listener listener) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(feedUrl).openConnection();
+    connection.setConnectTimeout(TIMEOUT_MS);
+    connection.setReadTimeout(TIMEOUT_MS);
+    File downloadFile = new File(snapshotFile.getPath() + ".download");
+    try (InputStream inputStream =
+        new CopyingInputStream(
+            connection.getInputStream(), new FileOutputStream(downloadFile))) {
+      parse(inputStream, listener);
+    } catch (IOException | RuntimeException e) {
+      downloadFile.delete();
+      throw e;
+    } finally {
+      connection.disconnect();
+    }
+    // A canceled download is incomplete, so it doesn't replace the snapshot.
+    if (isCanceled || !downloadFile.renameTo(snapshotFile)) {
+      downloadFile.delete();
+    }
+  }
+
+  private void parse(InputStream inputStream, Listener listener) throws IOException {
+    JsonReader reader =
+        new JsonReader(
+            new InputStreamReader(new BufferedInputStream(inputStream), StandardCharsets.UTF_8));
+    List<VideoItem> page = new ArrayList<>(pageSize);
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (isCanceled) {
+        return;
+      }
+      VideoItem videoItem = readVideoItem(reader);
+      if (videoItem != null) {
+        page.add(videoItem);
+      }
+      if (page.size() == pageSize) {
+        deliver(page, listener);
+        page = new ArrayList<>(pageSize);
+      }
+    }
+    reader.endArray();
+    if (!page.isEmpty()) {
+      deliver(page, listener);
+    }
+  }
+
+  /** Reads a video of the feed, returning null if it has no video URL. */
+  private VideoItem readVideoItem(JsonReader reader) throws IOException {
+    String title = "";
+    String videoUrl = null;
+    String adTagUrl = "";
+    boolean isVmap = false;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "title" -> title = reader.nextString();
+        case "videoUrl" -> videoUrl = reader.nextString();
+        case "adTagUrl" -> adTagUrl = reader.nextString();
+        case "isVmap" -> isVmap = reader.nextBoolean();
+        default -> reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return videoUrl == null
+        ? null
+        : new VideoItem(videoUrl, title, adTagUrl, thumbnailResourceId, isVmap);
+  }
+
+  private void deliver(List<VideoItem> page, Listener listener) {
+    hasDeliveredVideos = true;
+    post(() -> listener.onVideoItems(page));
+  }
+
+  private void post(Runnable runnable) {
+    mainHandler.post(
+        () -> {
+          if (!isCanceled) {
+            runnable.run();
+          }
+        });
+  }
+
+  /** Copies the bytes read from a stream to an output stream. */
+  private static final class CopyingInputStream extends FilterInputStream {
+
+    private final OutputStream copy;
+
+    CopyingInputStream(InputStream inputStream, OutputStream copy) {
+      super(inputStream);
+      this.copy = copy;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1) {
+        copy.write(b);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int readLength = super.read(buffer, offset, length);
+      if (readLength > 0) {
+        copy.write(buffer, offset, readLength);
+      }
+      return readLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        copy.close();
+      }
+    }
+  }
+}
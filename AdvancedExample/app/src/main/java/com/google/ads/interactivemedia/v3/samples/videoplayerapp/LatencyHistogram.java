@@ -0,0 +1,107 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+/**
+ * Histogram of latencies in milliseconds with a bounded relative error. Like an HDR histogram,
+ * values are counted in buckets that double in width with each power of two, and each power of two
+ * is split in 16 sub-buckets. Percentiles are accurate to about 6% whatever the latency, using a
+ * small fixed amount of memory.
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  // Latencies above an hour are counted as an hour.
+  private static final long MAX_VALUE_MS = 60 * 60 * 1000;
+
+  private final long[] counts = new long[getBucketIndex(MAX_VALUE_MS) + 1];
+  private long totalCount;
+  private long sumMs;
+  private long minMs = Long.MAX_VALUE;
+  private long maxMs;
+
+  /** Records a latency. Negative latencies are ignored. */
+  void record(long valueMs) {
+    if (valueMs < 0) {
+      return;
+    }
+    counts[getBucketIndex(Math.min(valueMs, MAX_VALUE_MS))]++;
+    totalCount++;
+    sumMs += valueMs;
+    minMs = Math.min(minMs, valueMs);
+    maxMs = Math.max(maxMs, valueMs);
+  }
+
+  long getCount() {
+    return totalCount;
+  }
+
+  long getMinMs() {
+    return totalCount == 0 ? 0 : minMs;
+  }
+
+  long getMaxMs() {
+    return maxMs;
+  }
+
+  long getMeanMs() {
+    return totalCount == 0 ? 0 : sumMs / totalCount;
+  }
+
+  /**
+   * Returns the latency at or below which {@code percentile} percent of the recorded latencies
+   * fall, rounded up to the upper bound of its bucket.
+   */
+  long getPercentileMs(double percentile) {
+    if (totalCount == 0) {
+      return 0;
+    }
+    long targetCount = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+    long cumulativeCount = 0;
+    for (int i = 0; i < counts.length; i++) {
+      cumulativeCount += counts[i];
+      if (cumulativeCount >= targetCount) {
+        return Math.min(getBucketLowerBound(i + 1) - 1, maxMs);
+      }
+    }
+    return maxMs;
+  }
+
+  @Override
+  public String toString() {
+    return "count="
+        + totalCount
+        + " min="
+        + getMinMs()
+        + " p50="
+        + getPercentileMs(50)
+        + " p90="
+        + getPercentileMs(90)
+        + " p99="
+        + getPercentileMs(99)
+        + " max="
+        + maxMs
+        + " (ms)";
+  }
+
+  private static int getBucketIndex(long valueMs) {
+    if (valueMs < SUB_BUCKET_COUNT) {
+      return (int) valueMs;
+    }
+    int highestBit = 63 - Long.numberOfLeadingZeros(valueMs);
+    int group = highestBit - SUB_BUCKET_BITS + 1;
+    int subBucket = (int) (valueMs >> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+    return (group << SUB_BUCKET_BITS) + subBucket;
+  }
+
+  private static long getBucketLowerBound(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int group = index >> SUB_BUCKET_BITS;
+    int subBucket = index & (SUB_BUCKET_COUNT - 1);
+    return (long) (SUB_BUCKET_COUNT + subBucket) << (group - 1);
+  }
+}
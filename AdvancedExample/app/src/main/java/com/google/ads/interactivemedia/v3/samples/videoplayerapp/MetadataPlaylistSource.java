@@ -0,0 +1,45 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Playlist of the sample videos built into the app, as listed in {@link VideoMetadata}. */
+final class MetadataPlaylistSource implements PlaylistSource {
+
+  // The built-in videos don't change while the app runs, so their items are only built once.
+  private static List<VideoItem> videoItems;
+
+  @Override
+  public void load(Listener listener) {
+    listener.onVideoItems(getVideoItems());
+    listener.onComplete();
+  }
+
+  @Override
+  public void cancel() {}
+
+  private static List<VideoItem> getVideoItems() {
+    if (videoItems != null) {
+      return videoItems;
+    }
+    List<VideoItem> items = new ArrayList<>(VideoMetadata.APP_VIDEOS.size());
+
+    // Iterate through the videos' metadata and add video items to list.
+    for (int i = 0; i < VideoMetadata.APP_VIDEOS.size(); i++) {
+      VideoMetadata videoMetadata = VideoMetadata.APP_VIDEOS.get(i);
+      items.add(
+          new VideoItem(
+              videoMetadata.videoUrl,
+              videoMetadata.title,
+              videoMetadata.adTagUrl,
+              videoMetadata.thumbnail,
+              videoMetadata.isVmap));
+    }
+
+    videoItems = Collections.unmodifiableList(items);
+    return videoItems;
+  }
+}
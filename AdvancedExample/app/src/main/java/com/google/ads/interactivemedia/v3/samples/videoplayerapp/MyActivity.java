@@ -18,6 +18,7 @@ import java.util.Locale;
 public class MyActivity extends AppCompatActivity
     implements VideoListFragment.OnVideoSelectedListener,
         VideoListFragment.OnVideoListFragmentResumedListener,
+        VideoListFragment.OnVideoFocusedListener,
         VideoFragment.OnVideoFragmentViewCreatedListener {
 
   private static final String VIDEO_PLAYLIST_FRAGMENT_TAG = "video_playlist_fragment_tag";
@@ -30,11 +31,13 @@ public class MyActivity extends AppCompatActivity
     setContentView(R.layout.activity_my);
     MultiDex.install(this);
 
-    // Initialize the IMA SDK as early as possible when the app starts. If your app already
-    // overrides Application.onCreate(), call this method inside the onCreate() method.
+    // The IMA SDK is initialized by ImaSdkInitializer, which App Startup runs when the app
+    // starts. It waits for the main thread to be idle, so it doesn't run during app startup itself.
     // https://developer.android.com/topic/performance/vitals/launch-time#app-creation
-    ImaSdkFactory sdkFactory = ImaSdkFactory.getInstance();
-    sdkFactory.initialize(this, MyActivity.getImaSdkSettings());
+
+    // Hold on to the ads loader of the video player for as long as the activity lives, so it is
+    // reused when the video fragment is replaced instead of being recreated for every video.
+    AdsLoaderManager.getInstance().acquire(this, R.id.videoPlayerWithAdPlayback);
 
     // The video list fragment won't exist for phone layouts, so add it dynamically so we can
     // .replace() it once the user selects a video.
@@ -60,6 +63,12 @@ public class MyActivity extends AppCompatActivity
     super.onPause();
   }
 
+  @Override
+  protected void onDestroy() {
+    AdsLoaderManager.getInstance().release(R.id.videoPlayerWithAdPlayback);
+    super.onDestroy();
+  }
+
   @Override
   public boolean onCreateOptionsMenu(Menu menu) {
     super.onCreateOptionsMenu(menu);
@@ -147,6 +156,16 @@ public class MyActivity extends AppCompatActivity
     orientAppUi();
   }
 
+  @Override
+  public void onVideoFocused(VideoItem videoItem) {
+    // The video fragment is only shown next to the list on large screens.
+    VideoFragment videoFragment =
+        (VideoFragment) getSupportFragmentManager().findFragmentByTag(VIDEO_EXAMPLE_FRAGMENT_TAG);
+    if (videoFragment != null) {
+      videoFragment.prefetchAds(videoItem);
+    }
+  }
+
   @Override
   public void onVideoListFragmentResumed() {
     invalidateOptionsMenu();
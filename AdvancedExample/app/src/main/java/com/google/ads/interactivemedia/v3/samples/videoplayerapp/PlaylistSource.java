@@ -0,0 +1,31 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import java.util.List;
+
+/**
+ * Source of the videos shown in the playlist. Sources deliver their videos page by page, so large
+ * catalogs can be shown before they are fully loaded.
+ */
+interface PlaylistSource {
+
+  /** Receives the videos of the playlist. All methods are called on the main thread. */
+  interface Listener {
+
+    /** Called with each page of videos, in playlist order. */
+    void onVideoItems(List<VideoItem> videoItems);
+
+    /** Called once all the videos have been delivered. */
+    void onComplete();
+
+    /** Called if loading the playlist failed. No more videos are delivered afterwards. */
+    void onError(Exception e);
+  }
+
+  /** Starts loading the playlist. Must be called on the main thread, at most once. */
+  void load(Listener listener);
+
+  /** Stops loading the playlist. The listener isn't called afterwards. */
+  void cancel();
+}
@@ -0,0 +1,48 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import com.google.ads.interactivemedia.v3.api.player.VideoProgressUpdate;
+
+/**
+ * Holds the last reported playback position and duration, and hands out the same {@link
+ * VideoProgressUpdate} until the position has moved by at least a configurable granularity. The
+ * SDK polls for progress several times per second, so this avoids allocating an update per poll.
+ */
+final class ProgressUpdateCache {
+
+  private final long granularityMs;
+  private long positionMs;
+  private long durationMs;
+  private VideoProgressUpdate progressUpdate;
+
+  /**
+   * @param granularityMs How far the position needs to move, in milliseconds, before a new update
+   *     is created.
+   */
+  ProgressUpdateCache(long granularityMs) {
+    this.granularityMs = granularityMs;
+    reset();
+  }
+
+  /** Returns an update for the given position and duration, reusing the last one if possible. */
+  VideoProgressUpdate get(long positionMs, long durationMs) {
+    if (durationMs <= 0) {
+      return VideoProgressUpdate.VIDEO_TIME_NOT_READY;
+    }
+    if (durationMs != this.durationMs
+        || Math.abs(positionMs - this.positionMs) >= granularityMs) {
+      this.positionMs = positionMs;
+      this.durationMs = durationMs;
+      progressUpdate = new VideoProgressUpdate(positionMs, durationMs);
+    }
+    return progressUpdate;
+  }
+
+  /** Discards the cached update, for example when a new video is loaded. */
+  void reset() {
+    positionMs = -1;
+    durationMs = -1;
+    progressUpdate = VideoProgressUpdate.VIDEO_TIME_NOT_READY;
+  }
+}
@@ -0,0 +1,97 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.ImageView;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads video thumbnails into image views. Thumbnails are decoded on a background thread,
+ * downsampled to the size they are shown at, and kept in a memory cache so scrolling back to a
+ * video doesn't decode its thumbnail again.
+ */
+final class ThumbnailLoader {
+
+  // Share of the app's memory used to cache thumbnails.
+  private static final int CACHE_MEMORY_DIVISOR = 8;
+
+  private final Resources resources;
+  private final int targetWidthPx;
+  private final int targetHeightPx;
+  private final LruCache<Integer, Bitmap> cache;
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  ThumbnailLoader(Resources resources, int targetWidthPx, int targetHeightPx) {
+    this.resources = resources;
+    this.targetWidthPx = targetWidthPx;
+    this.targetHeightPx = targetHeightPx;
+    int cacheSizeBytes = (int) (Runtime.getRuntime().maxMemory() / CACHE_MEMORY_DIVISOR);
+    cache =
+        new LruCache<Integer, Bitmap>(cacheSizeBytes) {
+          @Override
+          protected int sizeOf(Integer resourceId, Bitmap bitmap) {
+            return bitmap.getAllocationByteCount();
+          }
+        };
+  }
+
+  /** Shows the thumbnail in the image view, decoding it first if it isn't cached. */
+  void load(int resourceId, ImageView imageView) {
+    // Tag the view with the thumbnail it should show, since it may be rebound while decoding.
+    imageView.setTag(R.id.videoItemImage, resourceId);
+    Bitmap bitmap = cache.get(resourceId);
+    if (bitmap != null) {
+      imageView.setImageBitmap(bitmap);
+      return;
+    }
+    imageView.setImageDrawable(null);
+    executor.execute(
+        () -> {
+          Bitmap decodedBitmap = decode(resourceId);
+          mainHandler.post(
+              () -> {
+                if (decodedBitmap == null) {
+                  return;
+                }
+                cache.put(resourceId, decodedBitmap);
+                if (Integer.valueOf(resourceId).equals(imageView.getTag(R.id.videoItemImage))) {
+                  imageView.setImageBitmap(decodedBitmap);
+                }
+              });
+        });
+  }
+
+  /** Stops decoding thumbnails and clears the cache. */
+  void release() {
+    executor.shutdownNow();
+    mainHandler.removeCallbacksAndMessages(null);
+    cache.evictAll();
+  }
+
+  private Bitmap decode(int resourceId) {
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inJustDecodeBounds = true;
+    BitmapFactory.decodeResource(resources, resourceId, options);
+    options.inSampleSize = getSampleSize(options.outWidth, options.outHeight);
+    options.inJustDecodeBounds = false;
+    return BitmapFactory.decodeResource(resources, resourceId, options);
+  }
+
+  /** Returns the largest power of two that keeps the image at least as large as the target. */
+  private int getSampleSize(int widthPx, int heightPx) {
+    int sampleSize = 1;
+    while (widthPx / (sampleSize * 2) >= targetWidthPx
+        && heightPx / (sampleSize * 2) >= targetHeightPx) {
+      sampleSize *= 2;
+    }
+    return sampleSize;
+  }
+}
@@ -1,5 +1,6 @@
 package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
 
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
 import android.util.DisplayMetrics;
 import android.util.Log;
@@ -11,6 +12,8 @@ import android.widget.TextView;
 import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.constraintlayout.widget.ConstraintSet;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 /** The main fragment for displaying video content. */
 public class VideoFragment extends Fragment {
@@ -46,11 +49,23 @@ public class VideoFragment extends Fragment {
     videoPlayerController.setContentVideo(videoItem.getVideoUrl());
     videoPlayerController.setAdTagUrl(videoItem.getAdTagUrl());
     videoTitle.setText(videoItem.getTitle());
+
+    // Start loading the ads now, so they are ready when the user taps play.
+    videoPlayerController.prefetchAds(videoItem.getAdTagUrl());
+  }
+
+  /** Requests the ads for a video the user is likely to play next. */
+  public void prefetchAds(VideoItem videoItem) {
+    if (videoPlayerController != null) {
+      videoPlayerController.prefetchAds(videoItem.getAdTagUrl());
+    }
   }
 
   private void initUi(View rootView) {
     VideoPlayerWithAdPlayback videoPlayerWithAdPlayback =
         rootView.findViewById(R.id.videoPlayerWithAdPlayback);
+    // Pause the content on its own player during ad breaks, so it resumes without re-buffering.
+    videoPlayerWithAdPlayback.setKeepContentWarm(true);
     View playButton = rootView.findViewById(R.id.playButton);
     View playPauseToggle = rootView.findViewById(R.id.videoContainer);
     ViewGroup companionAdSlot = rootView.findViewById(R.id.companionAdSlot);
@@ -68,15 +83,16 @@ public class VideoFragment extends Fragment {
     forceHeight.constrainHeight(R.id.dummyScrollContent, displayMetrics.heightPixels);
     forceHeight.applyTo(constraintLayout);
 
-    final TextView logText = rootView.findViewById(R.id.logText);
+    RecyclerView logView = rootView.findViewById(R.id.logText);
+    logView.setLayoutManager(new LinearLayoutManager(getActivity()));
+    EventLogAdapter eventLog = new EventLogAdapter(EventLogAdapter.DEFAULT_CAPACITY);
+    logView.setAdapter(eventLog);
 
     // Provide an implementation of a logger so we can output SDK events to the UI.
     VideoPlayerController.Logger logger =
         message -> {
           Log.i("ImaExample", message);
-          if (logText != null) {
-            logText.append(message);
-          }
+          eventLog.log(message);
         };
 
     videoPlayerController =
@@ -88,6 +104,10 @@ public class VideoFragment extends Fragment {
             MyActivity.getImaSdkSettings(),
             companionAdSlot,
             logger);
+    if ((requireContext().getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+      // Report the SDK callbacks that are slow enough to drop frames in debug builds.
+      videoPlayerController.enableCallbackWatchdog(CallbackWatchdog.DEFAULT_THRESHOLD_MS);
+    }
 
     // If we've already selected a video, load it now.
     if (videoItem != null) {
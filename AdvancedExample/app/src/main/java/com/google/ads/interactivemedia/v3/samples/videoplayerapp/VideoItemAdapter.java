@@ -1,54 +1,88 @@
 package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
 
-import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.ImageView;
 import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
 import java.util.List;
 
-/** Renders VideoItems into a GridView for displaying videos in a playlist format. */
-public class VideoItemAdapter extends ArrayAdapter<VideoItem> {
+/** Renders VideoItems into a RecyclerView for displaying videos in a playlist format. */
+public class VideoItemAdapter extends RecyclerView.Adapter<VideoItemAdapter.VideoItemHolder> {
 
-  private final int layoutResourceId;
+  /** Listener for the user clicking or focusing a video item. */
+  public interface OnVideoItemListener {
+    void onVideoItemClicked(VideoItem videoItem);
 
-  public VideoItemAdapter(Context context, int layoutResourceId, List<VideoItem> data) {
-    super(context, layoutResourceId, data);
-    this.layoutResourceId = layoutResourceId;
+    void onVideoItemFocused(VideoItem videoItem);
+  }
+
+  private final ThumbnailLoader thumbnailLoader;
+  private final OnVideoItemListener listener;
+  private final List<VideoItem> videoItems = new ArrayList<>();
+
+  VideoItemAdapter(ThumbnailLoader thumbnailLoader, OnVideoItemListener listener) {
+    this.thumbnailLoader = thumbnailLoader;
+    this.listener = listener;
+  }
+
+  /**
+   * Appends videos to the end of the list. Only the new rows are bound, so adding a page doesn't
+   * compare or rebind the videos that are already shown.
+   */
+  void addVideoItems(List<VideoItem> items) {
+    int positionStart = videoItems.size();
+    videoItems.addAll(items);
+    notifyItemRangeInserted(positionStart, items.size());
   }
 
   @Override
-  public View getView(int position, View convertView, ViewGroup parent) {
-    VideoItemHolder videoItemHolder;
-    View row = convertView;
-
-    // Check if it's recycled.
-    if (row == null) {
-      LayoutInflater inflater = LayoutInflater.from(getContext());
-      row = inflater.inflate(layoutResourceId, parent, false);
-      videoItemHolder = new VideoItemHolder();
-      videoItemHolder.title = row.findViewById(R.id.videoItemText);
-      videoItemHolder.image = row.findViewById(R.id.videoItemImage);
-      row.setTag(videoItemHolder);
-    } else {
-      videoItemHolder = (VideoItemHolder) row.getTag();
-    }
+  public int getItemCount() {
+    return videoItems.size();
+  }
 
-    VideoItem item = getItem(position);
+  @NonNull
+  @Override
+  public VideoItemHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+    View row = LayoutInflater.from(parent.getContext()).inflate(R.layout.video_item, parent, false);
+    VideoItemHolder videoItemHolder = new VideoItemHolder(row);
+    row.setOnClickListener(
+        view -> {
+          int position = videoItemHolder.getBindingAdapterPosition();
+          if (position != RecyclerView.NO_POSITION) {
+            listener.onVideoItemClicked(videoItems.get(position));
+          }
+        });
+    row.setOnFocusChangeListener(
+        (view, hasFocus) -> {
+          int position = videoItemHolder.getBindingAdapterPosition();
+          if (hasFocus && position != RecyclerView.NO_POSITION) {
+            listener.onVideoItemFocused(videoItems.get(position));
+          }
+        });
+    return videoItemHolder;
+  }
 
-    assert item != null;
+  @Override
+  public void onBindViewHolder(@NonNull VideoItemHolder videoItemHolder, int position) {
+    VideoItem item = videoItems.get(position);
     videoItemHolder.title.setText(item.getTitle());
-    videoItemHolder.image.setImageResource(item.getImageResource());
-
-    return row;
+    thumbnailLoader.load(item.getImageResource(), videoItemHolder.image);
   }
 
   /** Holds the UI element equivalents of a VideoItem. */
-  private static class VideoItemHolder {
+  public static class VideoItemHolder extends RecyclerView.ViewHolder {
+
+    final TextView title;
+    final ImageView image;
 
-    TextView title;
-    ImageView image;
+    VideoItemHolder(View row) {
+      super(row);
+      title = row.findViewById(R.id.videoItemText);
+      image = row.findViewById(R.id.videoItemImage);
+    }
   }
 }
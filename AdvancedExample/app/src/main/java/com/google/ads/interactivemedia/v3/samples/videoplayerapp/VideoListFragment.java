@@ -3,22 +3,28 @@ package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
 import android.app.AlertDialog;
 import android.content.Context;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.CheckBox;
 import android.widget.EditText;
-import android.widget.ListView;
 import androidx.fragment.app.Fragment;
-import java.util.ArrayList;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import java.io.File;
 import java.util.List;
 
 /** Fragment for displaying a playlist of video thumbnails that the user can select from to play. */
 public class VideoListFragment extends Fragment {
 
+  private static final String PLAYLIST_SNAPSHOT_FILE_NAME = "playlist.json";
+
   OnVideoSelectedListener selectedCallback;
   LayoutInflater inflater;
   ViewGroup container;
+  private ThumbnailLoader thumbnailLoader;
+  private PlaylistSource playlistSource;
 
   /**
    * Listener called when the user selects a video from the list. Container activity must implement
@@ -30,6 +36,16 @@ public class VideoListFragment extends Fragment {
 
   private OnVideoListFragmentResumedListener resumeCallback;
 
+  /**
+   * Listener called when a video in the list gains focus, so its ads can be prefetched. Container
+   * activity must implement this interface.
+   */
+  public interface OnVideoFocusedListener {
+    void onVideoFocused(VideoItem videoItem);
+  }
+
+  private OnVideoFocusedListener focusedCallback;
+
   /** Listener called when the video list fragment resumes. */
   public interface OnVideoListFragmentResumedListener {
     public void onVideoListFragmentResumed();
@@ -51,6 +67,13 @@ public class VideoListFragment extends Fragment {
       throw new ClassCastException(
           context + " must implement " + OnVideoListFragmentResumedListener.class.getName());
     }
+
+    try {
+      focusedCallback = (OnVideoFocusedListener) context;
+    } catch (ClassCastException e) {
+      throw new ClassCastException(
+          context + " must implement " + OnVideoFocusedListener.class.getName());
+    }
   }
 
   @Override
@@ -60,22 +83,58 @@ public class VideoListFragment extends Fragment {
     this.container = container;
     View rootView = inflater.inflate(R.layout.fragment_video_list, container, false);
 
-    final ListView listView = rootView.findViewById(R.id.videoListView);
+    RecyclerView recyclerView = rootView.findViewById(R.id.videoListView);
+    recyclerView.setLayoutManager(new LinearLayoutManager(rootView.getContext()));
+    thumbnailLoader =
+        new ThumbnailLoader(
+            getResources(),
+            getResources().getDimensionPixelSize(R.dimen.video_item_thumbnail_width),
+            getResources().getDimensionPixelSize(R.dimen.video_item_thumbnail_height));
     VideoItemAdapter videoItemAdapter =
-        new VideoItemAdapter(rootView.getContext(), R.layout.video_item, getVideoItems());
-    listView.setAdapter(videoItemAdapter);
-
-    listView.setOnItemClickListener(
-        (parent, v, position, id) -> {
-          if (selectedCallback != null) {
-            VideoItem selectedVideo = (VideoItem) listView.getItemAtPosition(position);
-
-            // If applicable, prompt the user to input a custom ad tag.
-            if (selectedVideo.getAdTagUrl().equals(getString(R.string.custom_ad_tag_value))) {
-              getCustomAdTag(selectedVideo);
-            } else {
-              selectedCallback.onVideoSelected(selectedVideo);
-            }
+        new VideoItemAdapter(
+            thumbnailLoader,
+            new VideoItemAdapter.OnVideoItemListener() {
+              @Override
+              public void onVideoItemClicked(VideoItem selectedVideo) {
+                if (selectedCallback == null) {
+                  return;
+                }
+                // If applicable, prompt the user to input a custom ad tag.
+                if (selectedVideo.getAdTagUrl().equals(getString(R.string.custom_ad_tag_value))) {
+                  getCustomAdTag(selectedVideo);
+                } else {
+                  selectedCallback.onVideoSelected(selectedVideo);
+                }
+              }
+
+              @Override
+              public void onVideoItemFocused(VideoItem focusedVideo) {
+                // Custom ad tags are only known once the user enters them.
+                if (focusedCallback != null
+                    && !focusedVideo
+                        .getAdTagUrl()
+                        .equals(getString(R.string.custom_ad_tag_value))) {
+                  focusedCallback.onVideoFocused(focusedVideo);
+                }
+              }
+            });
+    recyclerView.setAdapter(videoItemAdapter);
+
+    // Show the videos as their pages are loaded.
+    playlistSource = createPlaylistSource();
+    playlistSource.load(
+        new PlaylistSource.Listener() {
+          @Override
+          public void onVideoItems(List<VideoItem> page) {
+            videoItemAdapter.addVideoItems(page);
+          }
+
+          @Override
+          public void onComplete() {}
+
+          @Override
+          public void onError(Exception e) {
+            Log.e("ImaExample", "Failed to load the playlist", e);
           }
         });
 
@@ -112,22 +171,33 @@ public class VideoListFragment extends Fragment {
         .show();
   }
 
-  private List<VideoItem> getVideoItems() {
-    final List<VideoItem> videoItems = new ArrayList<>();
-
-    // Iterate through the videos' metadata and add video items to list.
-    for (int i = 0; i < VideoMetadata.APP_VIDEOS.size(); i++) {
-      VideoMetadata videoMetadata = VideoMetadata.APP_VIDEOS.get(i);
-      videoItems.add(
-          new VideoItem(
-              videoMetadata.videoUrl,
-              videoMetadata.title,
-              videoMetadata.adTagUrl,
-              videoMetadata.thumbnail,
-              videoMetadata.isVmap));
+  /**
+   * Returns the source of the playlist. The videos are read from the JSON feed set in the {@code
+   * playlist_feed_url} string resource, or are the built-in sample videos if no feed is set.
+   */
+  private PlaylistSource createPlaylistSource() {
+    String feedUrl = getString(R.string.playlist_feed_url);
+    if (feedUrl.isEmpty()) {
+      return new MetadataPlaylistSource();
     }
+    return new JsonPlaylistSource(
+        feedUrl,
+        new File(requireContext().getCacheDir(), PLAYLIST_SNAPSHOT_FILE_NAME),
+        JsonPlaylistSource.DEFAULT_PAGE_SIZE,
+        R.drawable.thumbnail1);
+  }
 
-    return videoItems;
+  @Override
+  public void onDestroyView() {
+    super.onDestroyView();
+    if (playlistSource != null) {
+      playlistSource.cancel();
+      playlistSource = null;
+    }
+    if (thumbnailLoader != null) {
+      thumbnailLoader.release();
+      thumbnailLoader = null;
+    }
   }
 
   @Override
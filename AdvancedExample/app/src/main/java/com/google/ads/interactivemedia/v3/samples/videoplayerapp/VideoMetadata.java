@@ -11,7 +11,7 @@ public enum VideoMetadata {
       "https://pubads.g.doubleclick.net/gampad/ads?iu=/21775744923/external/"
           + "single_ad_samples&sz=640x480&cust_params=sample_ct%3Dlinear&"
           + "ciu_szs=300x250%2C728x90&gdfp_req=1&output=vast&unviewed_position_start=1&"
-          + "env=vp&correlator=",
+          + "env=vp&correlator=[CORRELATOR]",
       R.drawable.thumbnail1,
       false),
   PRE_ROLL_SKIP(
@@ -19,7 +19,7 @@ public enum VideoMetadata {
       "Pre-roll, linear, skippable",
       "https://pubads.g.doubleclick.net/gampad/ads?iu=/21775744923/external/"
           + "single_preroll_skippable&sz=640x480&ciu_szs=300x250%2C728x90&gdfp_req=1&"
-          + "output=vast&unviewed_position_start=1&env=vp&correlator=",
+          + "output=vast&unviewed_position_start=1&env=vp&correlator=[CORRELATOR]",
       R.drawable.thumbnail1,
       false),
   POST_ROLL(
@@ -27,7 +27,8 @@ public enum VideoMetadata {
       "Post-roll",
       "https://pubads.g.doubleclick.net/gampad/ads?iu=/21775744923/external/"
           + "vmap_ad_samples&sz=640x480&cust_params=sample_ar%3Dpostonly&ciu_szs=300x250&"
-          + "gdfp_req=1&ad_rule=1&output=vmap&unviewed_position_start=1&env=vp&correlator=",
+          + "gdfp_req=1&ad_rule=1&output=vmap&unviewed_position_start=1&env=vp&"
+          + "correlator=[CORRELATOR]",
       R.drawable.thumbnail1,
       true),
   VMAP(
@@ -36,7 +37,7 @@ public enum VideoMetadata {
       "https://pubads.g.doubleclick.net/gampad/ads?iu=/21775744923/external/"
           + "vmap_ad_samples&sz=640x480&cust_params=sample_ar%3Dpremidpost&ciu_szs=300x250&"
           + "gdfp_req=1&ad_rule=1&output=vmap&unviewed_position_start=1&env=vp&"
-          + "cmsid=496&vid=short_onecue&correlator=",
+          + "cmsid=496&vid=short_onecue&correlator=[CORRELATOR]",
       R.drawable.thumbnail1,
       true),
   VMAP_PODS(
@@ -45,7 +46,7 @@ public enum VideoMetadata {
       "https://pubads.g.doubleclick.net/gampad/ads?iu=/21775744923/external/"
           + "vmap_ad_samples&sz=640x480&cust_params=sample_ar%3Dpremidpostpod&ciu_szs=300x250&"
           + "gdfp_req=1&ad_rule=1&output=vmap&unviewed_position_start=1&env=vp&cmsid=496&"
-          + "vid=short_onecue&correlator=",
+          + "vid=short_onecue&correlator=[CORRELATOR]",
       R.drawable.thumbnail1,
       true),
   WRAPPER(
@@ -54,7 +55,7 @@ public enum VideoMetadata {
       "https://pubads.g.doubleclick.net/gampad/ads?iu=/21775744923/external/"
           + "single_ad_samples&sz=640x480&cust_params=sample_ct%3Dredirectlinear&"
           + "ciu_szs=300x250%2C728x90&gdfp_req=1&output=vast&unviewed_position_start=1&"
-          + "env=vp&correlator=",
+          + "env=vp&correlator=[CORRELATOR]",
       R.drawable.thumbnail1,
       false),
   CUSTOM(
@@ -3,10 +3,11 @@
 package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
 
 import android.content.Context;
+import android.os.SystemClock;
+import android.util.LruCache;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
-import com.google.ads.interactivemedia.v3.api.AdDisplayContainer;
 import com.google.ads.interactivemedia.v3.api.AdErrorEvent;
 import com.google.ads.interactivemedia.v3.api.AdEvent;
 import com.google.ads.interactivemedia.v3.api.AdsLoader;
@@ -16,20 +17,39 @@ import com.google.ads.interactivemedia.v3.api.AdsRenderingSettings;
 import com.google.ads.interactivemedia.v3.api.AdsRequest;
 import com.google.ads.interactivemedia.v3.api.ImaSdkFactory;
 import com.google.ads.interactivemedia.v3.api.ImaSdkSettings;
+import com.google.ads.interactivemedia.v3.api.player.ContentProgressProvider;
+import java.util.HashSet;
+import java.util.Set;
 
 /** Ads logic for handling the IMA SDK integration code and events. */
 public class VideoPlayerController {
 
+  // Number of prefetched ads managers to keep, and how long to keep them before they expire.
+  private static final int PREFETCH_POOL_CAPACITY = 3;
+  private static final long PREFETCH_TIME_TO_LIVE_MS = 5 * 60 * 1000;
+
+  // Number of compiled ad tag templates to keep.
+  private static final int AD_TAG_TEMPLATE_CACHE_SIZE = 16;
+
   /** Log interface, so we can output the log commands to the UI or similar. */
   public interface Logger {
     void log(String logMessage);
   }
 
-  // Container with references to video player and ad UI ViewGroup.
-  private final AdDisplayContainer adDisplayContainer;
+  // Holds the ad display container and ads loader, which are shared with later controllers for
+  // the same player surface instead of being recreated for each of them.
+  private final AdSurface adSurface;
+
+  // The AdsLoader instance exposes the requestAds method. Obtained on the first ad request, so
+  // that the IMA SDK doesn't have to be initialized before then.
+  private AdsLoader adsLoader;
+
+  private final Context context;
+  private final ImaSdkSettings imaSdkSettings;
 
-  // The AdsLoader instance exposes the requestAds method.
-  private final AdsLoader adsLoader;
+  // Listeners added to the shared ads loader, kept so they can be removed on destroy.
+  private final AdErrorEvent.AdErrorListener adsLoaderErrorListener;
+  private final AdsLoader.AdsLoadedListener adsLoadedListener;
 
   // AdsManager exposes methods to control ad playback and listen to ad events.
   private AdsManager adsManager;
@@ -66,6 +86,32 @@ public class VideoPlayerController {
 
   private boolean videoStarted;
 
+  // Ads managers that were loaded ahead of playback, keyed by ad tag URL.
+  private final AdsManagerPool prefetchedAds =
+      new AdsManagerPool(PREFETCH_POOL_CAPACITY, PREFETCH_TIME_TO_LIVE_MS);
+
+  // Ad tag URLs of the prefetch requests that have not completed yet.
+  private final Set<String> pendingPrefetches = new HashSet<>();
+
+  // Ad tag URL of the pending request that playback is waiting on, if any. It may be a prefetch
+  // request or a request made for playback.
+  private String awaitedAdTagUrl;
+
+  // Time at which playback with ads was requested, used to log how long loading the ads took.
+  private long playRequestedTimeMs;
+
+  // Measures the latencies ad breaks add to playback.
+  private final AdMetricsRecorder adMetrics = new AdMetricsRecorder();
+
+  // Ad tag URLs compiled into templates, keyed by the URL, and the values of their macros. Only
+  // the most recently used templates are kept, since custom ad tags can be entered at any time.
+  private final LruCache<String, AdTagTemplate> adTagTemplates =
+      new LruCache<>(AD_TAG_TEMPLATE_CACHE_SIZE);
+  private final AdTagMacros adTagMacros;
+
+  // Reports slow callbacks from the SDK, if enabled.
+  private CallbackWatchdog callbackWatchdog;
+
   // Inner class implementation of AdsLoader.AdsLoaderListener.
   private class AdsLoadedListener implements AdsLoader.AdsLoadedListener {
     /** An event raised when ads are successfully loaded from the ad server through AdsLoader. */
@@ -73,80 +119,117 @@ public class VideoPlayerController {
     public void onAdsManagerLoaded(AdsManagerLoadedEvent adsManagerLoadedEvent) {
       // Ads were successfully loaded, so get the AdsManager instance. AdsManager has
       // events for ad playback and errors.
-      adsManager = adsManagerLoadedEvent.getAdsManager();
-
-      // Attach event and error event listeners.
-      adsManager.addAdErrorListener(
-          new AdErrorEvent.AdErrorListener() {
-            /** An event raised when there is an error loading or playing ads. */
-            @Override
-            public void onAdError(AdErrorEvent adErrorEvent) {
-              log("Ad Error: " + adErrorEvent.getError().getMessage());
-              resumeContent();
+      AdsManager loadedAdsManager = adsManagerLoadedEvent.getAdsManager();
+
+      // The ad tag URL is set as the request context of every request.
+      Object adTagUrl = adsManagerLoadedEvent.getUserRequestContext();
+      boolean isPrefetch = pendingPrefetches.remove(adTagUrl);
+      if (!adTagUrl.equals(awaitedAdTagUrl)) {
+        if (isPrefetch) {
+          // Hold on to the prefetched ads until the user plays the matching video.
+          prefetchedAds.put((String) adTagUrl, loadedAdsManager);
+        } else {
+          // The user moved on to another video while these ads were loading.
+          loadedAdsManager.destroy();
+        }
+        return;
+      }
+      awaitedAdTagUrl = null;
+      startAdsManager(loadedAdsManager);
+    }
+  }
+
+  /** Attaches the listeners to an ads manager and initializes it to start ad playback. */
+  private void startAdsManager(AdsManager loadedAdsManager) {
+    adsManager = loadedAdsManager;
+    adMetrics.onAdsLoaded();
+    adsManager.addAdEventListener(adMetrics);
+    adsManager.addAdEventListener(adSurface.getCompanionSlotManager());
+
+    // Attach event and error event listeners.
+    adsManager.addAdErrorListener(
+        new AdErrorEvent.AdErrorListener() {
+          /** An event raised when there is an error loading or playing ads. */
+          @Override
+          public void onAdError(AdErrorEvent adErrorEvent) {
+            log("Ad Error: " + adErrorEvent.getError().getMessage());
+            resumeContent();
+          }
+        });
+    AdEvent.AdEventListener adEventListener =
+        new AdEvent.AdEventListener() {
+          /** Responds to AdEvents. */
+          @Override
+          public void onAdEvent(AdEvent adEvent) {
+            if (adEvent.getType() != AdEvent.AdEventType.AD_PROGRESS) {
+              log("Event: " + adEvent.getType());
             }
-          });
-      adsManager.addAdEventListener(
-          new AdEvent.AdEventListener() {
-            /** Responds to AdEvents. */
-            @Override
-            public void onAdEvent(AdEvent adEvent) {
-              if (adEvent.getType() != AdEvent.AdEventType.AD_PROGRESS) {
-                log("Event: " + adEvent.getType());
-              }
-
-              // These are the suggested event types to handle. For full list of all ad
-              // event types, see the documentation for AdEvent.AdEventType.
-              switch (adEvent.getType()) {
-                case LOADED:
-                  // AdEventType.LOADED will be fired when ads are ready to be
-                  // played. AdsManager.start() begins ad playback. This method is
-                  // ignored for VMAP or ad rules playlists, as the SDK will
-                  // automatically start executing the playlist.
-                  adsManager.start();
-                  break;
-                case CONTENT_PAUSE_REQUESTED:
-                  // AdEventType.CONTENT_PAUSE_REQUESTED is fired immediately before
-                  // a video ad is played.
-                  pauseContent();
-                  break;
-                case CONTENT_RESUME_REQUESTED:
-                  // AdEventType.CONTENT_RESUME_REQUESTED is fired when the ad is
-                  // completed and you should start playing your content.
-                  resumeContent();
-                  break;
-                case PAUSED:
-                  isAdPlaying = false;
-                  videoPlayerWithAdPlayback.enableControls();
-                  break;
-                case RESUMED:
-                  isAdPlaying = true;
-                  videoPlayerWithAdPlayback.disableControls();
-                  break;
-                case ALL_ADS_COMPLETED:
-                  if (adsManager != null) {
-                    adsManager.destroy();
-                    adsManager = null;
-                  }
-                  adsLoader.release();
-                  break;
-                case AD_BREAK_FETCH_ERROR:
-                  log("Ad Fetch Error. Resuming content.");
-                  // A CONTENT_RESUME_REQUESTED event should follow to trigger content playback.
-                  break;
-                default:
-                  break;
-              }
+
+            // These are the suggested event types to handle. For full list of all ad
+            // event types, see the documentation for AdEvent.AdEventType.
+            switch (adEvent.getType()) {
+              case LOADED:
+                // AdEventType.LOADED will be fired when ads are ready to be
+                // played. AdsManager.start() begins ad playback. This method is
+                // ignored for VMAP or ad rules playlists, as the SDK will
+                // automatically start executing the playlist.
+                if (playRequestedTimeMs != 0) {
+                  log(
+                      "Ads loaded "
+                          + (SystemClock.elapsedRealtime() - playRequestedTimeMs)
+                          + " ms after play was requested");
+                  playRequestedTimeMs = 0;
+                }
+                adsManager.start();
+                break;
+              case CONTENT_PAUSE_REQUESTED:
+                // AdEventType.CONTENT_PAUSE_REQUESTED is fired immediately before
+                // a video ad is played.
+                pauseContent();
+                break;
+              case CONTENT_RESUME_REQUESTED:
+                // AdEventType.CONTENT_RESUME_REQUESTED is fired when the ad is
+                // completed and you should start playing your content.
+                resumeContent();
+                break;
+              case PAUSED:
+                isAdPlaying = false;
+                videoPlayerWithAdPlayback.enableControls();
+                break;
+              case RESUMED:
+                isAdPlaying = true;
+                videoPlayerWithAdPlayback.disableControls();
+                break;
+              case ALL_ADS_COMPLETED:
+                if (adsManager != null) {
+                  adsManager.destroy();
+                  adsManager = null;
+                }
+                // The ads loader is kept for the next video. It is released by AdsLoaderManager
+                // once no controller uses the player surface anymore.
+                break;
+              case AD_BREAK_FETCH_ERROR:
+                log("Ad Fetch Error. Resuming content.");
+                // A CONTENT_RESUME_REQUESTED event should follow to trigger content playback.
+                break;
+              default:
+                break;
             }
-          });
-      AdsRenderingSettings adsRenderingSettings =
-          ImaSdkFactory.getInstance().createAdsRenderingSettings();
-      adsRenderingSettings.setPlayAdsAfterTime(playAdsAfterTime);
-      // Add any ads rendering settings here.
-      // This init() only loads the UI rendering settings locally.
-      adsManager.init(adsRenderingSettings);
-      seek(playAdsAfterTime);
-      videoStarted = true;
-    }
+          }
+        };
+    adsManager.addAdEventListener(
+        callbackWatchdog != null ? callbackWatchdog.wrap(adEventListener) : adEventListener);
+    AdsRenderingSettings adsRenderingSettings =
+        ImaSdkFactory.getInstance().createAdsRenderingSettings();
+    adsRenderingSettings.setPlayAdsAfterTime(playAdsAfterTime);
+    // Let the SDK load the next ad while the current video plays, so that the player can
+    // buffer it ahead of time.
+    adsRenderingSettings.setEnablePreloading(videoPlayerWithAdPlayback.isPreloadingEnabled());
+    // Add any ads rendering settings here.
+    // This init() only loads the UI rendering settings locally.
+    adsManager.init(adsRenderingSettings);
+    seek(playAdsAfterTime);
+    videoStarted = true;
   }
 
   public VideoPlayerController(
@@ -163,35 +246,78 @@ public class VideoPlayerController {
     isAdPlaying = false;
     this.companionViewGroup = companionViewGroup;
     this.log = log;
+    this.context = context;
+    this.imaSdkSettings = imaSdkSettings;
+    this.adTagMacros = new AdTagMacros(context);
 
-    // Create an AdsLoader and optionally set the language.
     sdkFactory = ImaSdkFactory.getInstance();
 
-    adDisplayContainer =
-        ImaSdkFactory.createAdDisplayContainer(
-            videoPlayerWithAdPlayback.getAdUiContainer(),
-            videoPlayerWithAdPlayback.getVideoAdPlayer());
-    adsLoader = sdkFactory.createAdsLoader(context, imaSdkSettings, adDisplayContainer);
+    adSurface =
+        AdsLoaderManager.getInstance().acquire(context, videoPlayerWithAdPlayback.getId());
+    adSurface.bind(videoPlayerWithAdPlayback);
+    videoPlayerWithAdPlayback.getVideoAdPlayer().addCallback(adMetrics);
+    if (companionViewGroup != null) {
+      adSurface.bindCompanions(companionViewGroup);
+      adSurface
+          .getCompanionSlotManager()
+          .setListener(
+              (widthDp, heightDp, latencyMs) ->
+                  log(
+                      "Companion "
+                          + widthDp
+                          + "x"
+                          + heightDp
+                          + " rendered in "
+                          + latencyMs
+                          + " ms"));
+    }
 
-    adsLoader.addAdErrorListener(
+    adsLoaderErrorListener =
         new AdErrorEvent.AdErrorListener() {
           /** An event raised when there is an error loading or playing ads. */
           @Override
           public void onAdError(AdErrorEvent adErrorEvent) {
             log("Ad Error: " + adErrorEvent.getError().getMessage());
+            Object adTagUrl = adErrorEvent.getUserRequestContext();
+            pendingPrefetches.remove(adTagUrl);
+            if (adTagUrl != null && !adTagUrl.equals(awaitedAdTagUrl)) {
+              // Playback isn't waiting on the failed request, so leave the content as is.
+              return;
+            }
+            awaitedAdTagUrl = null;
             resumeContent();
           }
-        });
-
-    adsLoader.addAdsLoadedListener(new VideoPlayerController.AdsLoadedListener());
+        };
+    adsLoadedListener = new VideoPlayerController.AdsLoadedListener();
 
     // When Play is clicked, request ads and hide the button.
     playButton.setOnClickListener(view -> requestAndPlayAds(-1));
   }
 
+  /**
+   * Returns the ads loader of the player surface, creating it if this is the first controller to
+   * use the surface. Initializes the IMA SDK first if it wasn't initialized at startup yet.
+   */
+  private AdsLoader getAdsLoader() {
+    if (adsLoader == null) {
+      long setupStartTimeMs = SystemClock.elapsedRealtime();
+      ImaSdkInitializer.ensureInitialized(context);
+      boolean isAdsLoaderReused = adSurface.hasAdsLoader();
+      adsLoader = adSurface.getAdsLoader(imaSdkSettings);
+      adsLoader.addAdErrorListener(adsLoaderErrorListener);
+      adsLoader.addAdsLoadedListener(adsLoadedListener);
+      log(
+          (isAdsLoaderReused ? "Reused" : "Created")
+              + " ads loader in "
+              + (SystemClock.elapsedRealtime() - setupStartTimeMs)
+              + " ms");
+    }
+    return adsLoader;
+  }
+
   private void log(String message) {
     if (log != null) {
-      log.log(message + "\n");
+      log.log(message);
     }
   }
 
@@ -227,19 +353,100 @@ public class VideoPlayerController {
     // Since we're switching to a new video, tell the SDK the previous video is finished.
     if (adsManager != null) {
       adsManager.destroy();
+      videoPlayerWithAdPlayback.clearLoadedAds();
     }
 
     playButton.setVisibility(View.GONE);
 
-    // Create the ads request.
-    AdsRequest request = sdkFactory.createAdsRequest();
-    request.setAdTagUrl(currentAdTagUrl);
-    request.setContentProgressProvider(videoPlayerWithAdPlayback.getContentProgressProvider());
-
     this.playAdsAfterTime = playAdsAfterTime;
+    playRequestedTimeMs = SystemClock.elapsedRealtime();
+    adMetrics.onAdsRequested();
+
+    // Use ads that were prefetched for this video if there are any.
+    AdsManager prefetchedAdsManager = prefetchedAds.take(currentAdTagUrl);
+    if (prefetchedAdsManager != null) {
+      awaitedAdTagUrl = null;
+      startAdsManager(prefetchedAdsManager);
+      return;
+    }
+    // Playback waits for the ads of this tag, whether they were prefetched or are requested now.
+    awaitedAdTagUrl = currentAdTagUrl;
+    if (pendingPrefetches.contains(currentAdTagUrl)) {
+      // The ads are already being loaded. Start them as soon as they are.
+      return;
+    }
 
     // Request the ad. After the ad is loaded, onAdsManagerLoaded() will be called.
-    adsLoader.requestAds(request);
+    getAdsLoader().requestAds(createAdsRequest(currentAdTagUrl));
+  }
+
+  /**
+   * Requests ads for the given ad tag ahead of playback, so that they are ready by the time the
+   * user plays the video. The loaded ads are kept for a limited time.
+   */
+  public void prefetchAds(String adTagUrl) {
+    if (adTagUrl == null
+        || adTagUrl.isEmpty()
+        || adTagUrl.equals(awaitedAdTagUrl)
+        || pendingPrefetches.contains(adTagUrl)
+        || prefetchedAds.contains(adTagUrl)) {
+      return;
+    }
+    pendingPrefetches.add(adTagUrl);
+    getAdsLoader().requestAds(createAdsRequest(adTagUrl));
+  }
+
+  private AdsRequest createAdsRequest(String adTagUrl) {
+    AdsRequest request = sdkFactory.createAdsRequest();
+    request.setAdTagUrl(expandAdTagUrl(adTagUrl));
+    ContentProgressProvider contentProgressProvider =
+        videoPlayerWithAdPlayback.getContentProgressProvider();
+    request.setContentProgressProvider(
+        callbackWatchdog != null
+            ? callbackWatchdog.wrap(contentProgressProvider)
+            : contentProgressProvider);
+    // Used to match the loaded ads manager to the request.
+    request.setUserRequestContext(adTagUrl);
+    return request;
+  }
+
+  /** Fills in the macros of the ad tag URL for a new request. */
+  private String expandAdTagUrl(String adTagUrl) {
+    AdTagTemplate template = adTagTemplates.get(adTagUrl);
+    if (template == null) {
+      template = AdTagTemplate.compile(adTagUrl);
+      adTagTemplates.put(adTagUrl, template);
+    }
+    if (!template.hasMacros()) {
+      return adTagUrl;
+    }
+    // Ads prefetched for other videos are requested before their content is known.
+    boolean isCurrentVideo = adTagUrl.equals(currentAdTagUrl);
+    adTagMacros.prepareRequest(
+        isCurrentVideo ? contentVideoUrl : null,
+        isCurrentVideo ? videoPlayerWithAdPlayback.getCurrentContentTime() : 0);
+    return template.expand(adTagMacros);
+  }
+
+  /**
+   * Reports the SDK callbacks into the video ad player and listeners that take longer than the
+   * given threshold to the log, to find which of them cause dropped frames.
+   */
+  void enableCallbackWatchdog(long thresholdMs) {
+    callbackWatchdog =
+        new CallbackWatchdog(
+            thresholdMs,
+            (callbackName, adMediaInfo, durationMs) ->
+                log(
+                    "Slow callback: "
+                        + callbackName
+                        + (adMediaInfo != null ? " for " + adMediaInfo.getUrl() : "")
+                        + " took "
+                        + durationMs
+                        + " ms"));
+    adSurface.bind(
+        videoPlayerWithAdPlayback,
+        callbackWatchdog.wrap(videoPlayerWithAdPlayback.getVideoAdPlayer()));
   }
 
   /** Touch to toggle play/pause during ad play instead of seeking. */
@@ -311,7 +518,24 @@ public class VideoPlayerController {
     if (adsManager != null) {
       adsManager.destroy();
       adsManager = null;
+      videoPlayerWithAdPlayback.clearLoadedAds();
+    }
+    prefetchedAds.clear();
+    pendingPrefetches.clear();
+    adTagMacros.release();
+    if (adsLoader != null) {
+      adsLoader.removeAdErrorListener(adsLoaderErrorListener);
+      adsLoader.removeAdsLoadedListener(adsLoadedListener);
+      adsLoader = null;
+    }
+    videoPlayerWithAdPlayback.getVideoAdPlayer().removeCallback(adMetrics);
+    adMetrics.export((metricName, histogram) -> log("Ad metric " + metricName + ": " + histogram));
+    adSurface.unbind(videoPlayerWithAdPlayback);
+    if (companionViewGroup != null) {
+      adSurface.unbindCompanions(companionViewGroup);
+      adSurface.getCompanionSlotManager().setListener(null);
     }
+    AdsLoaderManager.getInstance().release(videoPlayerWithAdPlayback.getId());
   }
 
   /** Seeks to time in content video in seconds. */
@@ -3,8 +3,10 @@
 package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
 
 import android.content.Context;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.View;
 import android.view.ViewGroup;
 import android.widget.RelativeLayout;
 import com.google.ads.interactivemedia.v3.api.AdPodInfo;
@@ -14,23 +16,43 @@ import com.google.ads.interactivemedia.v3.api.player.VideoAdPlayer;
 import com.google.ads.interactivemedia.v3.api.player.VideoProgressUpdate;
 import com.google.ads.interactivemedia.v3.samples.samplevideoplayer.VideoPlayer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Map;
 
 /** Video player that can play content video and ads. */
 public class VideoPlayerWithAdPlayback extends RelativeLayout {
 
+  // Size in pixels of the standby player. It is kept on screen so that its surface stays alive and
+  // the ad loaded into it can buffer, but it is too small to be seen.
+  private static final int STANDBY_PLAYER_SIZE_PX = 1;
+
+  // How far playback needs to advance before a new progress update is created for the SDK.
+  private static final long PROGRESS_GRANULARITY_MS = 100;
+
   // The wrapped video player.
   private VideoPlayer videoPlayer;
 
-  // A Timer to help track media updates
-  private Timer timer;
+  // Second player that buffers the next ad while the current video plays. Null if the layout
+  // does not provide one, in which case ads are not preloaded.
+  private VideoPlayer preloadVideoPlayer;
+
+  // The player the current ad is played on.
+  private VideoPlayer activeAdPlayer;
 
-  // Track the currently playing media file. If doing preloading, this will need to be an
-  // array or other data structure.
+  // Reports ad progress to the SDK while an ad is playing. Reused across ads.
+  private AdProgressTracker adProgressTracker;
+
+  // Track the currently playing media file.
   private AdMediaInfo adMediaInfo;
 
+  // The player each loaded ad has been assigned to. When preloading, this holds both the playing
+  // ad and the next ad in the pod.
+  private final Map<AdMediaInfo, VideoPlayer> adPlayers = new HashMap<>(2);
+
+  // An ad assigned to the ad player that is waiting for the current ad to stop before loading.
+  private AdMediaInfo deferredAd;
+
   // The SDK will render ad playback UI elements into this ViewGroup.
   private ViewGroup adUiContainer;
 
@@ -50,6 +72,16 @@ public class VideoPlayerWithAdPlayback extends RelativeLayout {
   // Used to track if the content has completed.
   private boolean contentHasCompleted;
 
+  // If the content player is paused rather than stopped during ad breaks, so that content
+  // resumes without re-opening and re-buffering the content video.
+  private boolean keepContentWarm;
+
+  // Used to track if the content is paused on the content player during the current ad break.
+  private boolean isContentRetained;
+
+  // Time at which content was last asked to resume, used to measure time to first frame.
+  private long contentResumeRequestedMs;
+
   // VideoAdPlayer interface implementation for the SDK to send ad play/pause type events.
   private VideoAdPlayer videoAdPlayer;
 
@@ -58,6 +90,12 @@ public class VideoPlayerWithAdPlayback extends RelativeLayout {
 
   private final List<VideoAdPlayer.VideoAdPlayerCallback> adCallbacks = new ArrayList<>(1);
 
+  // Reuse progress updates between polls, since the SDK polls for progress several times a second.
+  private final ProgressUpdateCache adProgressCache =
+      new ProgressUpdateCache(PROGRESS_GRANULARITY_MS);
+  private final ProgressUpdateCache contentProgressCache =
+      new ProgressUpdateCache(PROGRESS_GRANULARITY_MS);
+
   public VideoPlayerWithAdPlayback(Context context, AttributeSet attrs, int defStyle) {
     super(context, attrs, defStyle);
   }
@@ -77,31 +115,11 @@ public class VideoPlayerWithAdPlayback extends RelativeLayout {
   }
 
   private void startTracking() {
-    if (timer != null) {
-      return;
-    }
-    timer = new Timer();
-    TimerTask updateTimerTask =
-        new TimerTask() {
-          @Override
-          public void run() {
-            // Tell IMA the current video progress. A better implementation would be
-            // reactive to events from the media player, instead of polling.
-            for (VideoAdPlayer.VideoAdPlayerCallback callback : adCallbacks) {
-              callback.onAdProgress(adMediaInfo, videoAdPlayer.getAdProgress());
-            }
-          }
-        };
-    int initialDelayMs = 250;
-    int pollingTimeMs = 250;
-    timer.schedule(updateTimerTask, pollingTimeMs, initialDelayMs);
+    adProgressTracker.start();
   }
 
   private void stopTracking() {
-    if (timer != null) {
-      timer.cancel();
-      timer = null;
-    }
+    adProgressTracker.stop();
   }
 
   private void init() {
@@ -110,6 +128,8 @@ public class VideoPlayerWithAdPlayback extends RelativeLayout {
     savedAdPosition = 0;
     savedContentPosition = 0;
     videoPlayer = this.getRootView().findViewById(R.id.videoPlayer);
+    preloadVideoPlayer = this.getRootView().findViewById(R.id.preloadVideoPlayer);
+    activeAdPlayer = videoPlayer;
     adUiContainer = this.getRootView().findViewById(R.id.adUiContainer);
 
     // Define VideoAdPlayer connector.
@@ -123,36 +143,83 @@ public class VideoPlayerWithAdPlayback extends RelativeLayout {
           @Override
           public void playAd(AdMediaInfo info) {
             startTracking();
-            if (isAdDisplayed) {
-              videoPlayer.resume();
+            if (isAdDisplayed && info == adMediaInfo) {
+              activeAdPlayer.resume();
             } else {
+              VideoPlayer player = adPlayers.get(info);
+              if (player == null) {
+                Log.w("ImaExample", "Ad played without being loaded.");
+                return;
+              }
+              if (info == deferredAd) {
+                deferredAd = null;
+                player.setVideoPath(info.getUrl());
+              }
+              adMediaInfo = info;
               isAdDisplayed = true;
-              videoPlayer.play();
+              activeAdPlayer = player;
+              adProgressCache.reset();
+              showPlayer(player);
+              player.play();
             }
           }
 
           @Override
           public void loadAd(AdMediaInfo info, AdPodInfo api) {
-            adMediaInfo = info;
-            isAdDisplayed = false;
-            videoPlayer.setVideoPath(info.getUrl());
+            VideoPlayer player;
+            if (isPreloadingEnabled()) {
+              // Buffer the ad on the player that is not currently showing a video, so that it
+              // can start as soon as the current video ends.
+              player = getStandbyPlayer();
+              if (player == null) {
+                // Both players are in use. Load the ad on the ad player once the current ad
+                // stops.
+                deferredAd = info;
+                adPlayers.put(info, activeAdPlayer);
+                return;
+              }
+            } else {
+              adMediaInfo = info;
+              isAdDisplayed = false;
+              player = videoPlayer;
+            }
+            adPlayers.put(info, player);
+            player.setVideoPath(info.getUrl());
           }
 
           @Override
           public void stopAd(AdMediaInfo info) {
             stopTracking();
-            videoPlayer.stopPlayback();
+            VideoPlayer player = adPlayers.remove(info);
+            if (player == null) {
+              return;
+            }
+            if (info == deferredAd) {
+              // The ad was never loaded.
+              deferredAd = null;
+              return;
+            }
+            if (isPlayingAd(player) && info != adMediaInfo) {
+              // The next ad was deferred to this player and already started playing on it.
+              return;
+            }
+            player.stopPlayback();
+            // Start loading an ad that was waiting for this player to be free.
+            if (deferredAd != null && adPlayers.get(deferredAd) == player) {
+              player.setVideoPath(deferredAd.getUrl());
+              deferredAd = null;
+            }
           }
 
           @Override
           public void pauseAd(AdMediaInfo info) {
             stopTracking();
-            videoPlayer.pause();
+            activeAdPlayer.pause();
           }
 
           @Override
           public void release() {
-            // any clean up that needs to be done
+            stopTracking();
           }
 
           @Override
@@ -167,76 +234,158 @@ public class VideoPlayerWithAdPlayback extends RelativeLayout {
 
           @Override
           public VideoProgressUpdate getAdProgress() {
-            if (!isAdDisplayed || videoPlayer.getDuration() <= 0) {
+            if (!isAdDisplayed) {
               return VideoProgressUpdate.VIDEO_TIME_NOT_READY;
             }
-            return new VideoProgressUpdate(
-                videoPlayer.getCurrentPosition(), videoPlayer.getDuration());
+            return adProgressCache.get(
+                activeAdPlayer.getCurrentPosition(), activeAdPlayer.getDuration());
           }
         };
 
+    adProgressTracker =
+        new AdProgressTracker(
+            new AdProgressTracker.ProgressListener() {
+              @Override
+              public VideoProgressUpdate getAdProgress() {
+                return videoAdPlayer.getAdProgress();
+              }
+
+              @Override
+              public void onAdProgress(VideoProgressUpdate progressUpdate) {
+                // Indexed iteration avoids allocating an iterator on every progress update.
+                for (int i = 0; i < adCallbacks.size(); i++) {
+                  adCallbacks.get(i).onAdProgress(adMediaInfo, progressUpdate);
+                }
+              }
+            });
+
     contentProgressProvider =
         () -> {
-          if (isAdDisplayed || videoPlayer.getDuration() <= 0) {
+          if (isAdDisplayed) {
             return VideoProgressUpdate.VIDEO_TIME_NOT_READY;
           }
-          return new VideoProgressUpdate(
+          return contentProgressCache.get(
               videoPlayer.getCurrentPosition(), videoPlayer.getDuration());
         };
 
     // Set player callbacks for delegating major video events.
-    videoPlayer.addPlayerCallback(
-        new VideoPlayer.PlayerCallback() {
-          @Override
-          public void onPlay() {
-            if (isAdDisplayed) {
-              for (VideoAdPlayer.VideoAdPlayerCallback callback : adCallbacks) {
-                callback.onPlay(adMediaInfo);
-              }
-            }
-          }
+    videoPlayer.addPlayerCallback(createPlayerCallback(videoPlayer));
+    if (preloadVideoPlayer != null) {
+      preloadVideoPlayer.addPlayerCallback(createPlayerCallback(preloadVideoPlayer));
+    }
+  }
 
-          @Override
-          public void onPause() {
-            if (isAdDisplayed) {
-              for (VideoAdPlayer.VideoAdPlayerCallback callback : adCallbacks) {
-                callback.onPause(adMediaInfo);
-              }
-            }
+  /** Returns a callback that reports the major video events of {@code player} to the SDK. */
+  private VideoPlayer.PlayerCallback createPlayerCallback(VideoPlayer player) {
+    return new VideoPlayer.PlayerCallback() {
+      @Override
+      public void onPlay() {
+        if (isPlayingAd(player)) {
+          for (VideoAdPlayer.VideoAdPlayerCallback callback : adCallbacks) {
+            callback.onPlay(adMediaInfo);
           }
-
-          @Override
-          public void onResume() {
-            if (isAdDisplayed) {
-              for (VideoAdPlayer.VideoAdPlayerCallback callback : adCallbacks) {
-                callback.onResume(adMediaInfo);
-              }
-            }
+        }
+      }
+
+      @Override
+      public void onPause() {
+        if (isPlayingAd(player)) {
+          for (VideoAdPlayer.VideoAdPlayerCallback callback : adCallbacks) {
+            callback.onPause(adMediaInfo);
           }
-
-          @Override
-          public void onError() {
-            if (isAdDisplayed) {
-              for (VideoAdPlayer.VideoAdPlayerCallback callback : adCallbacks) {
-                callback.onError(adMediaInfo);
-              }
-            }
+        }
+      }
+
+      @Override
+      public void onResume() {
+        if (isPlayingAd(player)) {
+          for (VideoAdPlayer.VideoAdPlayerCallback callback : adCallbacks) {
+            callback.onResume(adMediaInfo);
           }
-
-          @Override
-          public void onComplete() {
-            if (isAdDisplayed) {
-              for (VideoAdPlayer.VideoAdPlayerCallback callback : adCallbacks) {
-                callback.onEnded(adMediaInfo);
-              }
-            } else {
-              contentHasCompleted = true;
-              for (VideoAdPlayer.VideoAdPlayerCallback callback : adCallbacks) {
-                callback.onContentComplete();
-              }
-            }
+        }
+      }
+
+      @Override
+      public void onError() {
+        // Errors are also reported for an ad that is still being preloaded.
+        AdMediaInfo info = isPlayingAd(player) ? adMediaInfo : getLoadedAd(player);
+        if (info != null) {
+          for (VideoAdPlayer.VideoAdPlayerCallback callback : adCallbacks) {
+            callback.onError(info);
+          }
+        }
+      }
+
+      @Override
+      public void onRenderingStart() {
+        if (player == videoPlayer && !isAdDisplayed) {
+          reportContentResumed();
+        }
+      }
+
+      @Override
+      public void onComplete() {
+        if (isPlayingAd(player)) {
+          for (VideoAdPlayer.VideoAdPlayerCallback callback : adCallbacks) {
+            callback.onEnded(adMediaInfo);
+          }
+        } else if (player == videoPlayer && !isAdDisplayed) {
+          contentHasCompleted = true;
+          for (VideoAdPlayer.VideoAdPlayerCallback callback : adCallbacks) {
+            callback.onContentComplete();
           }
-        });
+        }
+      }
+    };
+  }
+
+  /** Returns if the current ad is displayed on {@code player}. */
+  private boolean isPlayingAd(VideoPlayer player) {
+    return isAdDisplayed && player == activeAdPlayer;
+  }
+
+  /** Returns the ad loaded on {@code player}, or null if it holds no ad. */
+  private AdMediaInfo getLoadedAd(VideoPlayer player) {
+    for (Map.Entry<AdMediaInfo, VideoPlayer> entry : adPlayers.entrySet()) {
+      if (entry.getValue() == player) {
+        return entry.getKey();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the player that is not showing the current ad or the content video, or null if both
+   * are in use because the content player holds the paused content.
+   */
+  private VideoPlayer getStandbyPlayer() {
+    VideoPlayer displayedPlayer = isAdDisplayed ? activeAdPlayer : videoPlayer;
+    if (displayedPlayer != videoPlayer) {
+      return isContentRetained ? null : videoPlayer;
+    }
+    return preloadVideoPlayer;
+  }
+
+  /** Expands {@code player} to fill the view and shrinks the other player to standby size. */
+  private void showPlayer(VideoPlayer player) {
+    if (preloadVideoPlayer == null) {
+      return;
+    }
+    setPlayerSize(videoPlayer, player == videoPlayer);
+    setPlayerSize(preloadVideoPlayer, player == preloadVideoPlayer);
+  }
+
+  private static void setPlayerSize(VideoPlayer player, boolean isShown) {
+    // Resizing keeps the player's surface, and so the buffered video, alive. Hiding the player
+    // instead would destroy its surface and release the media player.
+    View playerView = (View) player;
+    ViewGroup.LayoutParams layoutParams = playerView.getLayoutParams();
+    int size = isShown ? ViewGroup.LayoutParams.MATCH_PARENT : STANDBY_PLAYER_SIZE_PX;
+    if (layoutParams.width != size || layoutParams.height != size) {
+      layoutParams.width = size;
+      layoutParams.height = size;
+      playerView.setLayoutParams(layoutParams);
+    }
   }
 
   /** Set the path of the video to be played as content. */
@@ -251,7 +400,7 @@ public class VideoPlayerWithAdPlayback extends RelativeLayout {
    */
   public void savePosition() {
     if (isAdDisplayed) {
-      savedAdPosition = videoPlayer.getCurrentPosition();
+      savedAdPosition = activeAdPlayer.getCurrentPosition();
     } else {
       savedContentPosition = videoPlayer.getCurrentPosition();
     }
@@ -263,7 +412,7 @@ public class VideoPlayerWithAdPlayback extends RelativeLayout {
    */
   public void restorePosition() {
     if (isAdDisplayed) {
-      videoPlayer.seekTo(savedAdPosition);
+      activeAdPlayer.seekTo(savedAdPosition);
     } else {
       videoPlayer.seekTo(savedContentPosition);
     }
@@ -304,7 +453,13 @@ public class VideoPlayerWithAdPlayback extends RelativeLayout {
   public void pauseContentForAdPlayback() {
     videoPlayer.disablePlaybackControls();
     savePosition();
-    videoPlayer.stopPlayback();
+    // Content can only be kept if it has been loaded, which isn't the case for pre-rolls.
+    if (keepContentWarm && isPreloadingEnabled() && videoPlayer.getDuration() > 0) {
+      isContentRetained = true;
+      videoPlayer.pause();
+    } else {
+      videoPlayer.stopPlayback();
+    }
   }
 
   /**
@@ -316,7 +471,21 @@ public class VideoPlayerWithAdPlayback extends RelativeLayout {
       Log.w("ImaExample", "No content URL specified.");
       return;
     }
+    contentResumeRequestedMs = SystemClock.elapsedRealtime();
     isAdDisplayed = false;
+    activeAdPlayer = videoPlayer;
+    showPlayer(videoPlayer);
+    if (isContentRetained) {
+      // The content is still buffered and paused on its player, so it can resume right away.
+      isContentRetained = false;
+      videoPlayer.enablePlaybackControls(/* timeout= */ 3000);
+      if (videoPlayer.getCurrentPosition() != savedContentPosition) {
+        videoPlayer.seekTo(savedContentPosition);
+      }
+      videoPlayer.play();
+      reportContentResumed();
+      return;
+    }
     videoPlayer.setVideoPath(contentVideoUrl);
     videoPlayer.enablePlaybackControls(/* timeout= */ 3000);
     videoPlayer.seekTo(savedContentPosition);
@@ -327,6 +496,34 @@ public class VideoPlayerWithAdPlayback extends RelativeLayout {
     }
   }
 
+  /** Logs the time from the content resume request to the first frame of content. */
+  private void reportContentResumed() {
+    if (contentResumeRequestedMs == 0) {
+      return;
+    }
+    long timeToFirstFrameMs = SystemClock.elapsedRealtime() - contentResumeRequestedMs;
+    contentResumeRequestedMs = 0;
+    Log.i("ImaExample", "Content resumed, time to first frame: " + timeToFirstFrameMs + " ms");
+  }
+
+  /**
+   * Sets whether content is paused rather than stopped during ad breaks. The content keeps its
+   * decoder and buffer on the content player while ads play on the second player, so it resumes
+   * instantly after the break. Requires preloading to be enabled.
+   */
+  public void setKeepContentWarm(boolean keepContentWarm) {
+    this.keepContentWarm = keepContentWarm;
+  }
+
+  /**
+   * Forgets the ads loaded on the players. Called when the ads manager is destroyed, which may
+   * happen in the middle of a pod without the SDK stopping the loaded ads.
+   */
+  public void clearLoadedAds() {
+    adPlayers.clear();
+    deferredAd = null;
+  }
+
   /** Returns the UI element for rendering video ad elements. */
   public ViewGroup getAdUiContainer() {
     return adUiContainer;
@@ -337,6 +534,14 @@ public class VideoPlayerWithAdPlayback extends RelativeLayout {
     return videoAdPlayer;
   }
 
+  /**
+   * Returns if the next ad is buffered on a second player while the current video plays. Enabled
+   * when the layout provides a {@code preloadVideoPlayer}.
+   */
+  public boolean isPreloadingEnabled() {
+    return preloadVideoPlayer != null;
+  }
+
   /** Returns if an ad is displayed. */
   public boolean getIsAdDisplayed() {
     return isAdDisplayed;
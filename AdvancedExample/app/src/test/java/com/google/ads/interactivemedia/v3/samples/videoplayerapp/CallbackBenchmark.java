@@ -0,0 +1,84 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Measures how long each callback of a scripted ad playback sequence takes and how much memory it
+ * allocates. The script is run a number of times to warm up, then run again while the time and the
+ * bytes allocated by the calling thread are recorded around each named callback.
+ *
+ * <p>The results include the overhead of Robolectric's shadows, so they are only meaningful when
+ * compared with other runs on the same host.
+ */
+final class CallbackBenchmark {
+
+  /** A scripted sequence of callbacks, each run through {@link #run}. */
+  interface Script {
+    void run(CallbackBenchmark benchmark);
+  }
+
+  private static final class Stats {
+    long count;
+    long totalNs;
+    long totalAllocatedBytes;
+  }
+
+  private final ThreadMXBean threadMxBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+  private final long threadId = Thread.currentThread().getId();
+  private final Map<String, Stats> stats = new LinkedHashMap<>();
+  private boolean isMeasuring;
+
+  /**
+   * Runs the script {@code warmupRuns} times, then {@code measuredRuns} times while measuring, and
+   * prints the average time and allocated bytes of each callback.
+   */
+  void measure(String name, int warmupRuns, int measuredRuns, Script script) {
+    for (int i = 0; i < warmupRuns; i++) {
+      script.run(this);
+    }
+    isMeasuring = true;
+    for (int i = 0; i < measuredRuns; i++) {
+      script.run(this);
+    }
+    isMeasuring = false;
+    System.out.println(name + ":");
+    for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+      Stats callbackStats = entry.getValue();
+      System.out.println(
+          String.format(
+              Locale.US,
+              "  %-20s %10.1f ns/op %10.1f allocated bytes/op",
+              entry.getKey(),
+              (double) callbackStats.totalNs / callbackStats.count,
+              (double) callbackStats.totalAllocatedBytes / callbackStats.count));
+    }
+    stats.clear();
+  }
+
+  /** Runs a callback of the script, measuring it if the script is being measured. */
+  void run(String callbackName, Runnable callback) {
+    if (!isMeasuring) {
+      callback.run();
+      return;
+    }
+    Stats callbackStats = stats.get(callbackName);
+    if (callbackStats == null) {
+      callbackStats = new Stats();
+      stats.put(callbackName, callbackStats);
+    }
+    long startAllocatedBytes = threadMxBean.getThreadAllocatedBytes(threadId);
+    long startNs = System.nanoTime();
+    callback.run();
+    long elapsedNs = System.nanoTime() - startNs;
+    long allocatedBytes = threadMxBean.getThreadAllocatedBytes(threadId) - startAllocatedBytes;
+    callbackStats.count++;
+    callbackStats.totalNs += elapsedNs;
+    callbackStats.totalAllocatedBytes += allocatedBytes;
+  }
+}
@@ -0,0 +1,191 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.os.Looper;
+import android.view.View;
+import android.widget.FrameLayout;
+import com.google.ads.interactivemedia.v3.api.player.AdMediaInfo;
+import com.google.ads.interactivemedia.v3.api.player.VideoAdPlayer;
+import com.google.ads.interactivemedia.v3.api.player.VideoAdPlayer.VideoAdPlayerCallback;
+import com.google.ads.interactivemedia.v3.api.player.VideoProgressUpdate;
+import com.google.ads.interactivemedia.v3.samples.samplevideoplayer.VideoPlayer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+/**
+ * Benchmarks the VideoAdPlayer callbacks of {@link VideoPlayerWithAdPlayback}, running a scripted
+ * ad playback sequence against a fake video player. Run it with {@code ./gradlew
+ * :app:testDebugUnitTest} and read the results from the test output.
+ *
+ * <p>Progress updates are sent from the main looper, so the measured progress fan-out includes the
+ * overhead of running a message on Robolectric's looper.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class VideoPlayerWithAdPlaybackBenchmark {
+
+  private static final int WARMUP_RUNS = 2000;
+  private static final int MEASURED_RUNS = 10000;
+  private static final int AD_DURATION_MS = 30000;
+
+  /** A video player that reports playback events without playing any video. */
+  private static final class FakeVideoPlayer extends View implements VideoPlayer {
+    private final List<PlayerCallback> callbacks = new ArrayList<>(1);
+    private int currentPosition;
+
+    FakeVideoPlayer(Context context) {
+      super(context);
+    }
+
+    @Override
+    public void play() {
+      for (int i = 0; i < callbacks.size(); i++) {
+        callbacks.get(i).onPlay();
+      }
+    }
+
+    @Override
+    public void pause() {
+      for (int i = 0; i < callbacks.size(); i++) {
+        callbacks.get(i).onPause();
+      }
+    }
+
+    @Override
+    public void resume() {
+      for (int i = 0; i < callbacks.size(); i++) {
+        callbacks.get(i).onResume();
+      }
+    }
+
+    @Override
+    public int getCurrentPosition() {
+      return currentPosition;
+    }
+
+    @Override
+    public void seekTo(int videoPosition) {
+      currentPosition = videoPosition;
+    }
+
+    @Override
+    public int getDuration() {
+      return AD_DURATION_MS;
+    }
+
+    @Override
+    public int getVolume() {
+      return 100;
+    }
+
+    @Override
+    public void stopPlayback() {
+      currentPosition = 0;
+    }
+
+    @Override
+    public void disablePlaybackControls() {}
+
+    @Override
+    public void enablePlaybackControls(int timeout) {}
+
+    @Override
+    public void setVideoPath(String videoUrl) {
+      currentPosition = 0;
+    }
+
+    @Override
+    public void addPlayerCallback(PlayerCallback callback) {
+      callbacks.add(callback);
+    }
+
+    @Override
+    public void removePlayerCallback(PlayerCallback callback) {
+      callbacks.remove(callback);
+    }
+  }
+
+  /** An SDK callback that ignores all events. */
+  private static final class NoOpCallback implements VideoAdPlayerCallback {
+    @Override
+    public void onAdProgress(AdMediaInfo adMediaInfo, VideoProgressUpdate videoProgressUpdate) {}
+
+    @Override
+    public void onBuffering(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onContentComplete() {}
+
+    @Override
+    public void onEnded(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onError(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onLoaded(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onPause(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onPlay(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onResume(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onVolumeChanged(AdMediaInfo adMediaInfo, int percentage) {}
+  }
+
+  @Test
+  public void benchmarkAdPlayback() {
+    Context context = RuntimeEnvironment.getApplication();
+    FakeVideoPlayer videoPlayer = new FakeVideoPlayer(context);
+    videoPlayer.setId(R.id.videoPlayer);
+    FrameLayout adUiContainer = new FrameLayout(context);
+    adUiContainer.setId(R.id.adUiContainer);
+    VideoPlayerWithAdPlayback videoPlayerWithAdPlayback = new VideoPlayerWithAdPlayback(context);
+    videoPlayerWithAdPlayback.addView(videoPlayer);
+    videoPlayerWithAdPlayback.addView(adUiContainer);
+    videoPlayerWithAdPlayback.onFinishInflate();
+
+    VideoAdPlayer videoAdPlayer = videoPlayerWithAdPlayback.getVideoAdPlayer();
+    // The SDK registers a few callbacks of its own.
+    for (int i = 0; i < 3; i++) {
+      videoAdPlayer.addCallback(new NoOpCallback());
+    }
+    AdMediaInfo adMediaInfo = new AdMediaInfo("https://example.com/ad.mp4");
+    ShadowLooper mainLooper = shadowOf(Looper.getMainLooper());
+
+    new CallbackBenchmark()
+        .measure(
+            "VideoPlayerWithAdPlayback",
+            WARMUP_RUNS,
+            MEASURED_RUNS,
+            benchmark -> {
+              benchmark.run(
+                  "loadAd", () -> videoAdPlayer.loadAd(adMediaInfo, /* adPodInfo= */ null));
+              benchmark.run("playAd", () -> videoAdPlayer.playAd(adMediaInfo));
+              // Playing the ad sends a progress update right away.
+              benchmark.run("onAdProgress fan-out", mainLooper::idle);
+              videoPlayer.seekTo(AD_DURATION_MS / 2);
+              benchmark.run("getAdProgress", videoAdPlayer::getAdProgress);
+              benchmark.run("getVolume", videoAdPlayer::getVolume);
+              benchmark.run("pauseAd", () -> videoAdPlayer.pauseAd(adMediaInfo));
+              benchmark.run("playAd (resume)", () -> videoAdPlayer.playAd(adMediaInfo));
+              benchmark.run("onAdProgress fan-out", mainLooper::idle);
+              benchmark.run("stopAd", () -> videoAdPlayer.stopAd(adMediaInfo));
+            });
+  }
+}
@@ -0,0 +1,58 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.exoplayerexample;
+
+import android.os.Bundle;
+import androidx.media3.common.Player;
+import androidx.media3.common.util.UnstableApi;
+
+/**
+ * Compact snapshot of where playback was in the content, which is saved with the activity state so
+ * a recreated activity picks up where the previous one left off.
+ *
+ * <p>The ads loader is set up not to play the ad breaks before the start position when the player
+ * starts partway into the content. Resuming from the saved content position therefore doesn't play
+ * the ad breaks that were already played again. If the activity was stopped during an ad break,
+ * the content position is the position of that break.
+ */
+@UnstableApi
+final class AdPlaybackSnapshot {
+
+  private static final String KEY_CONTENT_POSITION_MS = "content_position_ms";
+
+  private final long contentPositionMs;
+
+  private AdPlaybackSnapshot(long contentPositionMs) {
+    this.contentPositionMs = contentPositionMs;
+  }
+
+  /** Captures the playback state of the player, or returns null if nothing was loaded yet. */
+  static AdPlaybackSnapshot capture(Player player) {
+    if (player.getCurrentTimeline().isEmpty()) {
+      return null;
+    }
+    return new AdPlaybackSnapshot(player.getContentPosition());
+  }
+
+  /** Restores a snapshot saved by {@link #save(Bundle)}, or returns null if there is none. */
+  static AdPlaybackSnapshot restore(Bundle bundle) {
+    if (bundle == null || !bundle.containsKey(KEY_CONTENT_POSITION_MS)) {
+      return null;
+    }
+    return new AdPlaybackSnapshot(bundle.getLong(KEY_CONTENT_POSITION_MS));
+  }
+
+  void save(Bundle bundle) {
+    bundle.putLong(KEY_CONTENT_POSITION_MS, contentPositionMs);
+  }
+
+  /** Returns the content position to resume from. */
+  long getContentPositionMs() {
+    return contentPositionMs;
+  }
+
+  @Override
+  public String toString() {
+    return "content position " + contentPositionMs + " ms";
+  }
+}
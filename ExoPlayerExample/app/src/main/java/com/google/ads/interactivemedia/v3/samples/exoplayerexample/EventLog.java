@@ -0,0 +1,44 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.exoplayerexample;
+
+/**
+ * Fixed capacity log of event messages. Once the log is full, each new message replaces the oldest
+ * one, so the memory used by the log doesn't grow however long the session runs.
+ */
+final class EventLog {
+
+  private final String[] messages;
+  // Index of the oldest message in the ring buffer.
+  private int start;
+  private int size;
+
+  EventLog(int capacity) {
+    messages = new String[capacity];
+  }
+
+  /** Adds a message, returning whether the oldest message was dropped to make room for it. */
+  boolean add(String message) {
+    boolean isFull = size == messages.length;
+    messages[(start + size) % messages.length] = message;
+    if (isFull) {
+      start = (start + 1) % messages.length;
+    } else {
+      size++;
+    }
+    return isFull;
+  }
+
+  /** Returns the message at the given index, where index 0 is the oldest message. */
+  String get(int index) {
+    return messages[(start + index) % messages.length];
+  }
+
+  int size() {
+    return size;
+  }
+
+  int capacity() {
+    return messages.length;
+  }
+}
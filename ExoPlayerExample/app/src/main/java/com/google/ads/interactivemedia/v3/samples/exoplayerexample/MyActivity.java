@@ -7,10 +7,11 @@ import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.net.Uri;
 import android.os.Bundle;
-import android.text.method.ScrollingMovementMethod;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
-import android.widget.TextView;
 import androidx.media3.common.MediaItem;
+import androidx.media3.common.Player;
 import androidx.media3.datasource.DataSource;
 import androidx.media3.datasource.DefaultDataSource;
 import androidx.media3.exoplayer.ExoPlayer;
@@ -19,6 +20,8 @@ import androidx.media3.exoplayer.source.DefaultMediaSourceFactory;
 import androidx.media3.exoplayer.source.MediaSource;
 import androidx.media3.ui.PlayerView;
 import androidx.multidex.MultiDex;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import com.google.ads.interactivemedia.v3.api.AdEvent;
 import com.google.ads.interactivemedia.v3.api.ImaSdkFactory;
 import com.google.ads.interactivemedia.v3.api.ImaSdkSettings;
@@ -39,12 +42,30 @@ public class MyActivity extends Activity {
           + "&gdfp_req=1&output=vast&unviewed_position_start=1&env=vp&correlator=";
   private static final String LOG_TAG = "ImaExoPlayerExample";
 
+  // Set to true to keep the player while the activity is in the background, instead of releasing
+  // it. The retained player is only detached from the view, so it keeps its buffer, decoders and
+  // ad playback state, and playback resumes without rebuilding the player.
+  private static final boolean RETAIN_PLAYER_IN_BACKGROUND = false;
+
   private PlayerView playerView;
-  private TextView logText;
+  private EventLogAdapter eventLog;
   private ExoPlayer player;
   private ImaAdsLoader adsLoader;
   private ImaSdkSettings imaSdkSettings;
 
+  // Whether the retained player should resume playback when the activity returns to the
+  // foreground.
+  private boolean resumePlayWhenReady;
+
+  // Playback state saved by a previous instance of the activity, restored when the player is
+  // first created.
+  private AdPlaybackSnapshot restoredSnapshot;
+
+  // Time at which the player was last shown, and whether it was a retained player, used to log
+  // how long the first frame took.
+  private long playerShownTimeMs;
+  private boolean isPlayerRetained;
+
   // [END main_activity]
 
   // [START on_create]
@@ -54,41 +75,69 @@ public class MyActivity extends Activity {
     setContentView(R.layout.activity_my);
     MultiDex.install(this);
 
-    // Initialize the IMA SDK as early as possible when the app starts. If your app already
-    // overrides Application.onCreate(), call this method inside the onCreate() method.
-    // https://developer.android.com/topic/performance/vitals/launch-time#app-creation
-    ImaSdkFactory.getInstance().initialize(this, getImaSdkSettings());
+    // Initialize the IMA SDK once the main thread is idle, so it doesn't slow down activity
+    // creation. The SDK has to be initialized on the main thread. Early initialization only warms
+    // up the SDK, so the ads loader still works if the player is created first.
+    Looper.myQueue()
+        .addIdleHandler(
+            () -> {
+              ImaSdkFactory.getInstance().initialize(getApplicationContext(), getImaSdkSettings());
+              // Only run once.
+              return false;
+            });
 
     playerView = findViewById(R.id.player_view);
 
+    restoredSnapshot = AdPlaybackSnapshot.restore(savedInstanceState);
+
     // Create an AdsLoader.
     adsLoader =
         new ImaAdsLoader.Builder(/* context= */ this)
             .setAdEventListener(buildAdEventListener())
             .setImaSdkSettings(getImaSdkSettings())
+            // When resuming from a restored snapshot, don't replay the ad breaks before it.
+            .setPlayAdBeforeStartPosition(false)
             .build();
   }
 
   // [END on_create]
 
+  @Override
+  protected void onSaveInstanceState(Bundle outState) {
+    super.onSaveInstanceState(outState);
+    AdPlaybackSnapshot snapshot = player != null ? AdPlaybackSnapshot.capture(player) : null;
+    if (snapshot == null) {
+      // The player has nothing loaded, so keep any snapshot that wasn't restored yet.
+      snapshot = restoredSnapshot;
+    }
+    if (snapshot != null) {
+      snapshot.save(outState);
+    }
+  }
+
   // [START build_ad_event_listener]
   public AdEvent.AdEventListener buildAdEventListener() {
-    logText = findViewById(R.id.logText);
-    logText.setMovementMethod(new ScrollingMovementMethod());
+    RecyclerView logView = findViewById(R.id.logText);
+    logView.setLayoutManager(new LinearLayoutManager(this));
+    eventLog = new EventLogAdapter(EventLogAdapter.DEFAULT_CAPACITY);
+    logView.setAdapter(eventLog);
 
     return event -> {
       AdEvent.AdEventType eventType = event.getType();
       if (eventType == AdEvent.AdEventType.AD_PROGRESS) {
         return;
       }
-      String log = "IMA event: " + eventType;
-      if (logText != null) {
-        logText.append(log + "\n");
-      }
-      Log.i(LOG_TAG, log);
+      log("IMA event: " + eventType);
     };
   }
 
+  private void log(String message) {
+    if (eventLog != null) {
+      eventLog.log(message);
+    }
+    Log.i(LOG_TAG, message);
+  }
+
   // [END build_ad_event_listener]
 
   // [START player_events]
@@ -96,21 +145,15 @@ public class MyActivity extends Activity {
   public void onStart() {
     super.onStart();
     if (SDK_INT > 23) {
-      initializePlayer();
-      if (playerView != null) {
-        playerView.onResume();
-      }
+      showPlayer();
     }
   }
 
   @Override
   public void onResume() {
     super.onResume();
-    if (SDK_INT <= 23 || player == null) {
-      initializePlayer();
-      if (playerView != null) {
-        playerView.onResume();
-      }
+    if (SDK_INT <= 23 || playerView.getPlayer() == null) {
+      showPlayer();
     }
   }
 
@@ -121,7 +164,11 @@ public class MyActivity extends Activity {
       if (playerView != null) {
         playerView.onPause();
       }
-      releasePlayer();
+      if (RETAIN_PLAYER_IN_BACKGROUND) {
+        detachPlayer();
+      } else {
+        releasePlayer();
+      }
     }
   }
 
@@ -132,12 +179,19 @@ public class MyActivity extends Activity {
       if (playerView != null) {
         playerView.onPause();
       }
-      releasePlayer();
+      if (RETAIN_PLAYER_IN_BACKGROUND) {
+        detachPlayer();
+      } else {
+        releasePlayer();
+      }
     }
   }
 
   @Override
   protected void onDestroy() {
+    if (player != null) {
+      releasePlayer();
+    }
     adsLoader.release();
 
     super.onDestroy();
@@ -145,8 +199,40 @@ public class MyActivity extends Activity {
 
   // [END player_events]
 
+  // [START show_and_detach_player]
+  private void showPlayer() {
+    playerShownTimeMs = SystemClock.elapsedRealtime();
+    isPlayerRetained = player != null;
+    if (player == null) {
+      initializePlayer();
+    } else {
+      // Reattach the retained player, which still holds its buffer and ad playback state.
+      playerView.setPlayer(player);
+      player.setPlayWhenReady(resumePlayWhenReady);
+    }
+    if (playerView != null) {
+      playerView.onResume();
+    }
+  }
+
+  /** Pauses the player and detaches it from the view, keeping it for when the activity returns. */
+  private void detachPlayer() {
+    resumePlayWhenReady = player.getPlayWhenReady();
+    player.pause();
+    playerView.setPlayer(null);
+  }
+
+  // [END show_and_detach_player]
+
   // [START release_and_initialize_player]
   private void releasePlayer() {
+    AdMediaCache adMediaCache = AdMediaCache.getInstance(this);
+    Log.i(
+        LOG_TAG,
+        "Media cache bytes read: "
+            + adMediaCache.getCachedBytesRead()
+            + ", from the network: "
+            + adMediaCache.getUpstreamBytesRead());
     adsLoader.setPlayer(null);
     playerView.setPlayer(null);
     player.release();
@@ -154,8 +240,11 @@ public class MyActivity extends Activity {
   }
 
   private void initializePlayer() {
-    // Set up the factory for media sources, passing the ads loader and ad view providers.
-    DataSource.Factory dataSourceFactory = new DefaultDataSource.Factory(this);
+    // Set up the factory for media sources, passing the ads loader and ad view providers. Media is
+    // read through a disk cache, so ad creatives that are served repeatedly play from disk.
+    DataSource.Factory dataSourceFactory =
+        AdMediaCache.getInstance(this)
+            .createDataSourceFactory(new DefaultDataSource.Factory(this));
 
     MediaSource.Factory mediaSourceFactory =
         new DefaultMediaSourceFactory(dataSourceFactory)
@@ -163,6 +252,13 @@ public class MyActivity extends Activity {
 
     // Create an ExoPlayer and set it as the player for content and ads.
     player = new ExoPlayer.Builder(this).setMediaSourceFactory(mediaSourceFactory).build();
+    player.addListener(
+        new Player.Listener() {
+          @Override
+          public void onRenderedFirstFrame() {
+            logFirstFrame();
+          }
+        });
     playerView.setPlayer(player);
     adsLoader.setPlayer(player);
 
@@ -175,14 +271,33 @@ public class MyActivity extends Activity {
             .setAdsConfiguration(new MediaItem.AdsConfiguration.Builder(adTagUri).build())
             .build();
 
-    // Prepare the content and ad to be played with the SimpleExoPlayer.
-    player.setMediaItem(mediaItem);
+    // Prepare the content and ad to be played with the SimpleExoPlayer. If the activity was
+    // recreated, resume where the previous one left off, which skips the ad breaks before that.
+    if (restoredSnapshot != null) {
+      log("Restored " + restoredSnapshot);
+      player.setMediaItem(mediaItem, restoredSnapshot.getContentPositionMs());
+      restoredSnapshot = null;
+    } else {
+      player.setMediaItem(mediaItem);
+    }
     player.prepare();
 
     // Set PlayWhenReady. If true, content and ads will autoplay.
     player.setPlayWhenReady(false);
   }
 
+  private void logFirstFrame() {
+    if (playerShownTimeMs == 0) {
+      return;
+    }
+    log(
+        "First frame rendered "
+            + (SystemClock.elapsedRealtime() - playerShownTimeMs)
+            + " ms after the player was shown"
+            + (isPlayerRetained ? " (retained player)" : " (new player)"));
+    playerShownTimeMs = 0;
+  }
+
   // [END release_and_initialize_player]
 
   // [START get_ima_settings]
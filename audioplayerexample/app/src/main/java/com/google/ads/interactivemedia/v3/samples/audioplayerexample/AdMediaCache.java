@@ -0,0 +1,126 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.audioplayerexample;
+
+import android.content.Context;
+import android.net.Uri;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.database.StandaloneDatabaseProvider;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.TransferListener;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.LeastRecentlyUsedCacheEvictor;
+import androidx.media3.datasource.cache.SimpleCache;
+import java.io.File;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk cache for ad media. Frequency capped campaigns serve the same creative many times per
+ * session, so repeated creatives are played from disk instead of being downloaded again. The
+ * least recently used media is evicted once the cache exceeds its byte budget.
+ */
+@UnstableApi
+final class AdMediaCache {
+
+  /** Default byte budget of the cache. */
+  static final long DEFAULT_MAX_CACHE_BYTES = 100 * 1024 * 1024;
+
+  private static final String CACHE_DIRECTORY_NAME = "ad_media";
+
+  private static AdMediaCache instance;
+
+  private final SimpleCache cache;
+  // Data sources are read on loader threads, so the counters are updated from several threads.
+  private final AtomicLong cachedBytesRead = new AtomicLong();
+  private final AtomicLong upstreamBytesRead = new AtomicLong();
+
+  /**
+   * Returns the cache of the process. Only one instance may use the cache directory at a time, so
+   * the cache is shared by every player in the app.
+   */
+  static synchronized AdMediaCache getInstance(Context context) {
+    if (instance == null) {
+      instance = new AdMediaCache(context.getApplicationContext(), DEFAULT_MAX_CACHE_BYTES);
+    }
+    return instance;
+  }
+
+  private AdMediaCache(Context context, long maxCacheBytes) {
+    cache =
+        new SimpleCache(
+            new File(context.getCacheDir(), CACHE_DIRECTORY_NAME),
+            new LeastRecentlyUsedCacheEvictor(maxCacheBytes),
+            new StandaloneDatabaseProvider(context));
+  }
+
+  /** Returns a data source factory that reads through the cache before {@code upstream}. */
+  DataSource.Factory createDataSourceFactory(DataSource.Factory upstream) {
+    TransferListener upstreamBytesCounter =
+        new TransferListener() {
+          @Override
+          public void onTransferInitializing(
+              DataSource source, DataSpec dataSpec, boolean isNetwork) {}
+
+          @Override
+          public void onTransferStart(DataSource source, DataSpec dataSpec, boolean isNetwork) {}
+
+          @Override
+          public void onBytesTransferred(
+              DataSource source, DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+            upstreamBytesRead.addAndGet(bytesTransferred);
+          }
+
+          @Override
+          public void onTransferEnd(DataSource source, DataSpec dataSpec, boolean isNetwork) {}
+        };
+    DataSource.Factory countingUpstream =
+        () -> {
+          DataSource dataSource = upstream.createDataSource();
+          dataSource.addTransferListener(upstreamBytesCounter);
+          return dataSource;
+        };
+    return new CacheDataSource.Factory()
+        .setCache(cache)
+        .setUpstreamDataSourceFactory(countingUpstream)
+        .setCacheKeyFactory(
+            dataSpec -> dataSpec.key != null ? dataSpec.key : normalizeUrl(dataSpec.uri))
+        .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR)
+        .setEventListener(
+            new CacheDataSource.EventListener() {
+              @Override
+              public void onCachedBytesRead(long cacheSizeBytes, long cachedBytes) {
+                cachedBytesRead.addAndGet(cachedBytes);
+              }
+
+              @Override
+              public void onCacheIgnored(int reason) {}
+            });
+  }
+
+  /** Returns the number of ad media bytes that were read from the cache. */
+  long getCachedBytesRead() {
+    return cachedBytesRead.get();
+  }
+
+  /** Returns the number of ad media bytes that had to be read from the network. */
+  long getUpstreamBytesRead() {
+    return upstreamBytesRead.get();
+  }
+
+  /**
+   * Normalizes a creative URL, so that URLs that only differ in letter case of the scheme and host
+   * or in their fragment share a cache entry.
+   */
+  static String normalizeUrl(Uri uri) {
+    Uri.Builder builder = uri.buildUpon().fragment(null);
+    if (uri.getScheme() != null) {
+      builder.scheme(uri.getScheme().toLowerCase(Locale.US));
+    }
+    if (uri.getEncodedAuthority() != null) {
+      builder.encodedAuthority(uri.getEncodedAuthority().toLowerCase(Locale.US));
+    }
+    return builder.build().toString();
+  }
+}
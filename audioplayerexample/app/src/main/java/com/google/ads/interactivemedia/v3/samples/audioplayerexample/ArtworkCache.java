@@ -0,0 +1,137 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.audioplayerexample;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.util.SparseArray;
+import androidx.annotation.DrawableRes;
+import androidx.annotation.Nullable;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.ui.PlayerNotificationManager.BitmapCallback;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Album artwork for the playback notification and media descriptions. Artwork is decoded on a
+ * background thread, downsampled to the size of the notification large icon, and kept in a memory
+ * cache, so notification updates don't decode the full resolution artwork again.
+ */
+@UnstableApi
+final class ArtworkCache {
+
+  // Number of large icons the cache holds.
+  private static final int MAX_CACHED_ICONS = 8;
+
+  private final Resources resources;
+  private final int targetWidthPx;
+  private final int targetHeightPx;
+  private final LruCache<Integer, Bitmap> cache;
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  // Callbacks waiting for artwork that is being decoded, by resource ID.
+  private final SparseArray<List<BitmapCallback>> pendingCallbacks = new SparseArray<>();
+
+  ArtworkCache(Resources resources) {
+    this.resources = resources;
+    this.targetWidthPx =
+        resources.getDimensionPixelSize(android.R.dimen.notification_large_icon_width);
+    this.targetHeightPx =
+        resources.getDimensionPixelSize(android.R.dimen.notification_large_icon_height);
+    cache =
+        new LruCache<Integer, Bitmap>(MAX_CACHED_ICONS * targetWidthPx * targetHeightPx * 4) {
+          @Override
+          protected int sizeOf(Integer resourceId, Bitmap bitmap) {
+            return bitmap.getAllocationByteCount();
+          }
+        };
+  }
+
+  /**
+   * Returns the artwork if it is cached. Otherwise, decodes it in the background, passes it to the
+   * callback on the main thread and returns null.
+   */
+  @Nullable
+  Bitmap load(@DrawableRes int resourceId, BitmapCallback callback) {
+    Bitmap bitmap = cache.get(resourceId);
+    if (bitmap != null || executor.isShutdown()) {
+      // Once released, artwork is no longer decoded.
+      return bitmap;
+    }
+    List<BitmapCallback> callbacks = pendingCallbacks.get(resourceId);
+    if (callbacks != null) {
+      // The artwork is already being decoded.
+      callbacks.add(callback);
+      return null;
+    }
+    callbacks = new ArrayList<>(1);
+    callbacks.add(callback);
+    pendingCallbacks.put(resourceId, callbacks);
+    executor.execute(
+        () -> {
+          Bitmap decodedBitmap = decode(resourceId);
+          mainHandler.post(
+              () -> {
+                List<BitmapCallback> waitingCallbacks = pendingCallbacks.get(resourceId);
+                pendingCallbacks.remove(resourceId);
+                if (decodedBitmap == null || waitingCallbacks == null) {
+                  return;
+                }
+                cache.put(resourceId, decodedBitmap);
+                for (int i = 0; i < waitingCallbacks.size(); i++) {
+                  waitingCallbacks.get(i).onBitmap(decodedBitmap);
+                }
+              });
+        });
+    return null;
+  }
+
+  /** Returns the artwork, decoding it on the calling thread if it isn't cached. */
+  @Nullable
+  Bitmap get(@DrawableRes int resourceId) {
+    Bitmap bitmap = cache.get(resourceId);
+    if (bitmap == null) {
+      bitmap = decode(resourceId);
+      if (bitmap != null) {
+        cache.put(resourceId, bitmap);
+      }
+    }
+    return bitmap;
+  }
+
+  /** Stops decoding artwork and clears the cache. Later loads return null. */
+  void release() {
+    executor.shutdownNow();
+    mainHandler.removeCallbacksAndMessages(null);
+    pendingCallbacks.clear();
+    cache.evictAll();
+  }
+
+  private Bitmap decode(int resourceId) {
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    // Don't scale the artwork up to the screen density, only down to the icon size.
+    options.inScaled = false;
+    options.inJustDecodeBounds = true;
+    BitmapFactory.decodeResource(resources, resourceId, options);
+    options.inSampleSize = getSampleSize(options.outWidth, options.outHeight);
+    options.inJustDecodeBounds = false;
+    return BitmapFactory.decodeResource(resources, resourceId, options);
+  }
+
+  /** Returns the largest power of two that keeps the image at least as large as the target. */
+  private int getSampleSize(int widthPx, int heightPx) {
+    int sampleSize = 1;
+    while (widthPx / (sampleSize * 2) >= targetWidthPx
+        && heightPx / (sampleSize * 2) >= targetHeightPx) {
+      sampleSize *= 2;
+    }
+    return sampleSize;
+  }
+}
@@ -18,6 +18,7 @@ import androidx.annotation.Nullable;
 import androidx.media3.common.C;
 import androidx.media3.common.MediaItem;
 import androidx.media3.common.Player;
+import androidx.media3.common.util.UnstableApi;
 import androidx.media3.datasource.DefaultDataSource;
 import androidx.media3.exoplayer.ExoPlayer;
 import androidx.media3.exoplayer.analytics.AnalyticsListener;
@@ -29,9 +30,7 @@ import androidx.media3.ui.PlayerNotificationManager.BitmapCallback;
 import androidx.media3.ui.PlayerNotificationManager.MediaDescriptionAdapter;
 import androidx.media3.ui.PlayerNotificationManager.NotificationListener;
 import com.google.ads.interactivemedia.v3.api.AdDisplayContainer;
-import com.google.ads.interactivemedia.v3.api.CompanionAdSlot;
 import com.google.ads.interactivemedia.v3.api.ImaSdkFactory;
-import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -45,9 +44,10 @@ public class AudioPlayerService extends Service {
 
   private boolean isAdPlaying;
   private ExoPlayer player;
-  private List<MediaSource> contentMediaSources;
+  private ContentPlaylist contentPlaylist;
   private MediaSession mediaSession;
   private ImaService imaService;
+  private ArtworkCache artworkCache;
   private final Samples.Sample[] sampleList = Samples.getSamples();
 
   @Override
@@ -55,26 +55,25 @@ public class AudioPlayerService extends Service {
     super.onCreate();
     final Context context = this;
 
-    // Initialize the IMA SDK as early as possible when the app starts. If your app already
-    // overrides Application.onCreate(), call this method inside the onCreate() method.
+    // Schedule the IMA SDK initialization as early as possible when the app starts. It runs once
+    // the main thread is idle, so it doesn't run during the service startup itself.
     // https://developer.android.com/topic/performance/vitals/launch-time#app-creation
     ImaService.initializeIMASDK(context);
 
     isAdPlaying = false;
 
     player = new ExoPlayer.Builder(context).build();
+    artworkCache = new ArtworkCache(getResources());
 
     DefaultDataSource.Factory dataSourceFactory = new DefaultDataSource.Factory(context);
 
-    contentMediaSources = new ArrayList<>();
-    for (Samples.Sample sample : sampleList) {
-      MediaItem mediaItem = new MediaItem.Builder().setUri(sample.uri).build();
-      MediaSource mediaSource =
-          new ProgressiveMediaSource.Factory(dataSourceFactory).createMediaSource(mediaItem);
-      contentMediaSources.add(mediaSource);
-    }
-
-    player.addMediaSources(contentMediaSources);
+    // Media sources are only created for the samples around the current one, so starting the
+    // service doesn't get slower as the catalog grows.
+    contentPlaylist =
+        new ContentPlaylist(
+            player, new ProgressiveMediaSource.Factory(dataSourceFactory), sampleList);
+    player.addListener(contentPlaylist);
+    contentPlaylist.seekTo(0);
     player.prepare();
     player.setPlayWhenReady(true);
 
@@ -85,7 +84,7 @@ public class AudioPlayerService extends Service {
             if (isAdPlaying) {
               return getString(R.string.ad_content_title);
             }
-            return sampleList[player.getCurrentMediaItemIndex()].title;
+            return contentPlaylist.getSample(player.getCurrentMediaItemIndex()).title;
           }
 
           @Nullable
@@ -101,7 +100,7 @@ public class AudioPlayerService extends Service {
               // Null will remove the extra line for description.
               return null;
             }
-            return sampleList[player.getCurrentMediaItemIndex()].description;
+            return contentPlaylist.getSample(player.getCurrentMediaItemIndex()).description;
           }
 
           @Nullable
@@ -112,8 +111,10 @@ public class AudioPlayerService extends Service {
             if (isAdPlaying) {
               return null;
             }
-            return Samples.getBitmap(
-                context, sampleList[player.getCurrentMediaItemIndex()].bitmapResource);
+            // The artwork is decoded in the background the first time, and the notification is
+            // updated through the callback once it is ready.
+            Samples.Sample sample = contentPlaylist.getSample(player.getCurrentMediaItemIndex());
+            return artworkCache.load(sample.bitmapResource, callback);
           }
         };
 
@@ -150,7 +151,9 @@ public class AudioPlayerService extends Service {
 
     playerNotificationManager.setMediaSessionToken(mediaSession.getPlatformToken());
 
-    imaService = new ImaService(context, dataSourceFactory, new SharedAudioPlayer());
+    SharedAudioPlayer sharedAudioPlayer = new SharedAudioPlayer();
+    player.addListener(sharedAudioPlayer);
+    imaService = new ImaService(context, dataSourceFactory, sharedAudioPlayer);
   }
 
   @Override
@@ -159,6 +162,7 @@ public class AudioPlayerService extends Service {
     mediaSession = null;
     player.release();
     player = null;
+    artworkCache.release();
 
     super.onDestroy();
   }
@@ -178,27 +182,98 @@ public class AudioPlayerService extends Service {
    * A limited API for the ImaService which provides a minimal surface of control over playback on
    * the shared ExoPlayer instance.
    */
-  class SharedAudioPlayer {
+  class SharedAudioPlayer implements Player.Listener {
+    // Where the content was when the ads claimed the player, to resume it from there afterwards.
+    private int contentMediaItemIndex;
+    private long contentPositionMs;
+
+    // Ads queued on the playlist after the content, in playlist order.
+    private final List<Object> queuedAds = new ArrayList<>();
+
     public void claim() {
+      if (!isAdPlaying) {
+        contentMediaItemIndex = player.getCurrentMediaItemIndex();
+        contentPositionMs = player.getCurrentPosition();
+      }
       isAdPlaying = true;
+      // Keep the content items where they are on the playlist, so the content can be resumed.
+      contentPlaylist.setFrozen(true);
       player.setPlayWhenReady(false);
+      updatePauseAtContentEnd();
     }
 
-    @androidx.media3.common.util.UnstableApi
     public void release() {
       if (isAdPlaying) {
         isAdPlaying = false;
-        player.addMediaSources(contentMediaSources);
-        player.prepare();
+        // The content sources were never removed from the playlist, so they are still prepared.
+        player.seekTo(contentMediaItemIndex, contentPositionMs);
+        removeAdMediaItems();
+        contentPlaylist.setFrozen(false);
+        updatePauseAtContentEnd();
         player.setPlayWhenReady(true);
-        // TODO: Seek to where you left off the stream, if needed.
       }
     }
 
-    @androidx.media3.common.util.UnstableApi
-    public void prepare(MediaSource mediaSource) {
-      player.setMediaSource(mediaSource);
-      player.prepare();
+    /**
+     * Queues an ad on the playlist so that the player starts buffering it ahead of playback. Ads
+     * are appended after the content instead of replacing it, so the content stays prepared.
+     * Consecutive ads play back to back, and playback ends rather than moving on to the content
+     * when the last queued ad completes. Content playback pauses at the end of the last content
+     * item instead of rolling into a queued ad that the SDK hasn't asked to play yet.
+     */
+    @UnstableApi
+    public void queueAd(Object ad, MediaSource mediaSource) {
+      if (isAdQueued(ad)) {
+        return;
+      }
+      queuedAds.add(ad);
+      player.addMediaSource(mediaSource);
+      updatePauseAtContentEnd();
+    }
+
+    public boolean isAdQueued(Object ad) {
+      return queuedAds.contains(ad);
+    }
+
+    /** Returns if the given queued ad is the current playlist item. */
+    public boolean isCurrentAd(Object ad) {
+      int index = queuedAds.indexOf(ad);
+      return index != C.INDEX_UNSET
+          && player.getCurrentMediaItemIndex() == contentPlaylist.getSize() + index;
+    }
+
+    /** Moves playback to the given queued ad, unless the player already moved on to it. */
+    public void playAd(Object ad) {
+      if (!isCurrentAd(ad)) {
+        player.seekTo(contentPlaylist.getSize() + queuedAds.indexOf(ad), /* positionMs= */ 0);
+      }
+      if (player.getPlaybackState() == Player.STATE_IDLE) {
+        player.prepare();
+      }
+    }
+
+    @Override
+    public void onMediaItemTransition(MediaItem mediaItem, int reason) {
+      updatePauseAtContentEnd();
+    }
+
+    /**
+     * Pauses the player at the end of the last content item while ads are queued after it, so
+     * ads only start when the SDK plays them. Other item transitions are left seamless.
+     */
+    private void updatePauseAtContentEnd() {
+      player.setPauseAtEndOfMediaItems(
+          !isAdPlaying
+              && !queuedAds.isEmpty()
+              && player.getCurrentMediaItemIndex() == contentPlaylist.getSize() - 1);
+    }
+
+    private void removeAdMediaItems() {
+      queuedAds.clear();
+      int mediaItemCount = player.getMediaItemCount();
+      if (mediaItemCount > contentPlaylist.getSize()) {
+        player.removeMediaItems(contentPlaylist.getSize(), mediaItemCount);
+      }
     }
 
     public void addAnalyticsListener(AnalyticsListener listener) {
@@ -218,20 +293,22 @@ public class AudioPlayerService extends Service {
         // instead choose queue up the change for after the ad is completed, or cancel the ad.
         return;
       }
-      if (player.getCurrentTimeline().getWindowCount() > index) {
-        player.seekTo(index, C.TIME_UNSET);
-      }
+      contentPlaylist.seekTo(index);
     }
 
     public void initializeAds(Context context, ViewGroup companionView) {
-      ImaSdkFactory sdkFactory = ImaSdkFactory.getInstance();
       AdDisplayContainer container =
           ImaSdkFactory.createAudioAdDisplayContainer(context, imaService.imaVideoAdPlayer);
-      CompanionAdSlot companionAdSlot = sdkFactory.createCompanionAdSlot();
-      companionAdSlot.setContainer(companionView);
-      companionAdSlot.setSize(300, 250);
-      container.setCompanionSlots(ImmutableList.of(companionAdSlot));
-      imaService.init(container);
+      // The slots are laid out once and reused for every ad, so companions are shown without
+      // relayouting the activity.
+      CompanionSlotManager companionSlots =
+          new CompanionSlotManager(context).addSlot(300, 250).addSlot(320, 50);
+      companionView.addView(
+          companionSlots.getView(),
+          ViewGroup.LayoutParams.MATCH_PARENT,
+          ViewGroup.LayoutParams.MATCH_PARENT);
+      container.setCompanionSlots(companionSlots.getCompanionAdSlots());
+      imaService.init(container, companionSlots);
     }
 
     public void requestAd(String adTagUrl) {
@@ -0,0 +1,200 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.audioplayerexample;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.widget.FrameLayout;
+import com.google.ads.interactivemedia.v3.api.AdEvent;
+import com.google.ads.interactivemedia.v3.api.CompanionAdSlot;
+import com.google.ads.interactivemedia.v3.api.ImaSdkFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Companion ad slots of several sizes sharing one container view. Each size gets a frame that is
+ * created once and reused for every ad. The frames are laid out at their final size up front and
+ * kept invisible while the linear ad buffers, and they lay out the companions the SDK renders into
+ * them without asking their parents for a layout pass, so showing a companion at ad start doesn't
+ * relayout the screen. The time from each ad loading to its companion being drawn is reported.
+ *
+ * <p>All methods must be called on the main thread.
+ */
+final class CompanionSlotManager implements AdEvent.AdEventListener {
+
+  /** Receives the render latency of each companion ad. */
+  interface Listener {
+
+    /**
+     * Called when a companion ad of the given size is first drawn, {@code latencyMs} after its ad
+     * was loaded.
+     */
+    void onCompanionRendered(int widthDp, int heightDp, long latencyMs);
+  }
+
+  private final FrameLayout container;
+  private final float density;
+  private final List<CompanionAdSlot> companionAdSlots = new ArrayList<>();
+  private final List<SlotFrame> slotFrames = new ArrayList<>();
+  private Listener listener;
+
+  // Time the current ad was loaded, or 0 if no ad is loaded.
+  private long adLoadedTimeMs;
+
+  CompanionSlotManager(Context context) {
+    container = new FrameLayout(context);
+    density = context.getResources().getDisplayMetrics().density;
+  }
+
+  /** Adds a slot for companion ads of the given size, centered in the container. */
+  CompanionSlotManager addSlot(int widthDp, int heightDp) {
+    SlotFrame frame = new SlotFrame(container.getContext(), widthDp, heightDp);
+    frame.setVisibility(View.INVISIBLE);
+    container.addView(
+        frame,
+        new FrameLayout.LayoutParams(
+            Math.round(widthDp * density), Math.round(heightDp * density), Gravity.CENTER));
+    slotFrames.add(frame);
+
+    CompanionAdSlot companionAdSlot = ImaSdkFactory.getInstance().createCompanionAdSlot();
+    companionAdSlot.setContainer(frame);
+    companionAdSlot.setSize(widthDp, heightDp);
+    companionAdSlots.add(companionAdSlot);
+    return this;
+  }
+
+  /** Returns the slots to set on the ad display container. */
+  List<CompanionAdSlot> getCompanionAdSlots() {
+    return Collections.unmodifiableList(companionAdSlots);
+  }
+
+  /** Returns the view holding the slots, to be added to the layout of the app. */
+  View getView() {
+    return container;
+  }
+
+  void setListener(Listener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public void onAdEvent(AdEvent adEvent) {
+    switch (adEvent.getType()) {
+      case LOADED:
+        // The linear ad is buffering. Hide the companion of the previous ad, keeping its frame
+        // laid out so the next companion can be shown without a layout pass.
+        adLoadedTimeMs = SystemClock.elapsedRealtime();
+        for (int i = 0; i < slotFrames.size(); i++) {
+          slotFrames.get(i).setVisibility(View.INVISIBLE);
+        }
+        break;
+      case ALL_ADS_COMPLETED:
+        adLoadedTimeMs = 0;
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void onCompanionDrawn(SlotFrame frame) {
+    if (adLoadedTimeMs != 0 && listener != null) {
+      listener.onCompanionRendered(
+          frame.widthDp, frame.heightDp, SystemClock.elapsedRealtime() - adLoadedTimeMs);
+    }
+  }
+
+  /**
+   * A frame of fixed size that the SDK renders a companion into. Since its size can't change, it
+   * lays out its content itself just before the next draw, instead of requesting a layout of the
+   * whole view hierarchy.
+   */
+  private final class SlotFrame extends FrameLayout
+      implements ViewGroup.OnHierarchyChangeListener, ViewTreeObserver.OnPreDrawListener {
+
+    final int widthDp;
+    final int heightDp;
+    private boolean isLayoutPending;
+    private boolean isDrawPending;
+    private boolean isPreDrawListenerAdded;
+
+    SlotFrame(Context context, int widthDp, int heightDp) {
+      super(context);
+      this.widthDp = widthDp;
+      this.heightDp = heightDp;
+      setOnHierarchyChangeListener(this);
+    }
+
+    @Override
+    public void requestLayout() {
+      if (!isLaidOut() || !isAttachedToWindow()) {
+        super.requestLayout();
+        return;
+      }
+      forceLayout();
+      isLayoutPending = true;
+      addPreDrawListener();
+      invalidate();
+    }
+
+    @Override
+    public void onChildViewAdded(View parent, View child) {
+      // The SDK rendered a companion into this slot.
+      setVisibility(View.VISIBLE);
+      isDrawPending = true;
+      addPreDrawListener();
+    }
+
+    @Override
+    public void onChildViewRemoved(View parent, View child) {
+      // The child is still counted while it is being removed.
+      if (getChildCount() <= 1) {
+        setVisibility(View.INVISIBLE);
+        isDrawPending = false;
+      }
+    }
+
+    @Override
+    public boolean onPreDraw() {
+      removePreDrawListener();
+      if (isLayoutPending) {
+        isLayoutPending = false;
+        measure(
+            MeasureSpec.makeMeasureSpec(getWidth(), MeasureSpec.EXACTLY),
+            MeasureSpec.makeMeasureSpec(getHeight(), MeasureSpec.EXACTLY));
+        layout(getLeft(), getTop(), getRight(), getBottom());
+      }
+      if (isDrawPending) {
+        isDrawPending = false;
+        onCompanionDrawn(this);
+      }
+      return true;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+      removePreDrawListener();
+      isLayoutPending = false;
+      isDrawPending = false;
+      super.onDetachedFromWindow();
+    }
+
+    private void addPreDrawListener() {
+      if (!isPreDrawListenerAdded) {
+        isPreDrawListenerAdded = true;
+        getViewTreeObserver().addOnPreDrawListener(this);
+      }
+    }
+
+    private void removePreDrawListener() {
+      if (isPreDrawListenerAdded) {
+        isPreDrawListenerAdded = false;
+        getViewTreeObserver().removeOnPreDrawListener(this);
+      }
+    }
+  }
+}
@@ -0,0 +1,139 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.audioplayerexample;
+
+import androidx.media3.common.C;
+import androidx.media3.common.MediaItem;
+import androidx.media3.common.Player;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.source.MediaSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The content items on the playlist of the player. Only a window of the catalog around the current
+ * item is put on the playlist, so media sources are created for a few items instead of the whole
+ * catalog, and the window moves along with playback. The items ahead of the current one are on the
+ * playlist before they play, so the player buffers them ahead of time.
+ *
+ * <p>The content items come first on the playlist. Ads may be queued after them.
+ */
+@UnstableApi
+final class ContentPlaylist implements Player.Listener {
+
+  // Number of catalog items kept on the playlist before and after the current one.
+  private static final int ITEMS_BEHIND = 1;
+  private static final int ITEMS_AHEAD = 2;
+
+  private final ExoPlayer player;
+  private final MediaSource.Factory mediaSourceFactory;
+  private final Samples.Sample[] catalog;
+
+  // Catalog indices of the first item on the playlist and of the item following the last one.
+  private int windowStart;
+  private int windowEnd;
+
+  // Whether the window is kept as is, while ads play.
+  private boolean isFrozen;
+
+  // Whether the window is being replaced, during which the playlist doesn't match it.
+  private boolean isReplacing;
+
+  ContentPlaylist(
+      ExoPlayer player, MediaSource.Factory mediaSourceFactory, Samples.Sample[] catalog) {
+    this.player = player;
+    this.mediaSourceFactory = mediaSourceFactory;
+    this.catalog = catalog;
+  }
+
+  /** Returns the number of content items on the playlist. */
+  int getSize() {
+    return windowEnd - windowStart;
+  }
+
+  /** Returns the catalog item of the content item at the given playlist index. */
+  Samples.Sample getSample(int mediaItemIndex) {
+    return catalog[windowStart + Math.max(0, Math.min(mediaItemIndex, getSize() - 1))];
+  }
+
+  /** Makes the given catalog item current, moving the window to it if needed. */
+  void seekTo(int catalogIndex) {
+    if (catalogIndex < 0 || catalogIndex >= catalog.length) {
+      return;
+    }
+    if (catalogIndex >= windowStart && catalogIndex < windowEnd) {
+      player.seekTo(catalogIndex - windowStart, C.TIME_UNSET);
+      moveWindow();
+      return;
+    }
+    // Replace the whole window, keeping any queued ads after it.
+    int oldSize = getSize();
+    int newStart = Math.max(0, catalogIndex - ITEMS_BEHIND);
+    int newEnd = Math.min(catalog.length, catalogIndex + ITEMS_AHEAD + 1);
+    isReplacing = true;
+    player.addMediaSources(0, createMediaSources(newStart, newEnd));
+    if (oldSize > 0) {
+      player.removeMediaItems(newEnd - newStart, newEnd - newStart + oldSize);
+    }
+    windowStart = newStart;
+    windowEnd = newEnd;
+    isReplacing = false;
+    player.seekTo(catalogIndex - windowStart, C.TIME_UNSET);
+  }
+
+  /**
+   * Keeps the window as it is while {@code isFrozen} is true, so the playlist indices of the
+   * content items don't change.
+   */
+  void setFrozen(boolean isFrozen) {
+    this.isFrozen = isFrozen;
+    if (!isFrozen) {
+      moveWindow();
+    }
+  }
+
+  @Override
+  public void onMediaItemTransition(MediaItem mediaItem, int reason) {
+    moveWindow();
+  }
+
+  /** Moves the window so it is centered on the current item. */
+  private void moveWindow() {
+    int mediaItemIndex = player.getCurrentMediaItemIndex();
+    if (isFrozen || isReplacing || mediaItemIndex >= getSize()) {
+      // An ad is playing, or the playlist is being updated.
+      return;
+    }
+    int catalogIndex = windowStart + mediaItemIndex;
+
+    // Update the end first, since the playlist indices of the items after the start don't change.
+    // Items are added before any queued ads.
+    int newEnd = Math.min(catalog.length, catalogIndex + ITEMS_AHEAD + 1);
+    if (newEnd > windowEnd) {
+      player.addMediaSources(getSize(), createMediaSources(windowEnd, newEnd));
+    } else if (newEnd < windowEnd) {
+      player.removeMediaItems(newEnd - windowStart, getSize());
+    }
+    windowEnd = newEnd;
+
+    int newStart = Math.max(0, catalogIndex - ITEMS_BEHIND);
+    if (newStart < windowStart) {
+      player.addMediaSources(0, createMediaSources(newStart, windowStart));
+    } else if (newStart > windowStart) {
+      player.removeMediaItems(0, newStart - windowStart);
+    }
+    windowStart = newStart;
+  }
+
+  private List<MediaSource> createMediaSources(int fromCatalogIndex, int toCatalogIndex) {
+    List<MediaSource> mediaSources = new ArrayList<>(toCatalogIndex - fromCatalogIndex);
+    for (int i = fromCatalogIndex; i < toCatalogIndex; i++) {
+      Samples.Sample sample = catalog[i];
+      MediaItem mediaItem =
+          new MediaItem.Builder().setUri(sample.uri).setMediaId(sample.mediaId).build();
+      mediaSources.add(mediaSourceFactory.createMediaSource(mediaItem));
+    }
+    return mediaSources;
+  }
+}
@@ -3,11 +3,14 @@ package com.google.ads.interactivemedia.v3.samples.audioplayerexample;
 import android.content.Context;
 import android.net.Uri;
 import android.os.Handler;
+import android.os.Looper;
 import android.os.Message;
+import android.os.SystemClock;
 import android.util.Log;
 import androidx.media3.common.MediaItem;
 import androidx.media3.common.Player;
 import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.DataSource;
 import androidx.media3.datasource.DefaultDataSource;
 import androidx.media3.exoplayer.ExoPlayer;
 import androidx.media3.exoplayer.analytics.AnalyticsListener;
@@ -23,6 +26,7 @@ import com.google.ads.interactivemedia.v3.api.AdsLoader;
 import com.google.ads.interactivemedia.v3.api.AdsLoader.AdsLoadedListener;
 import com.google.ads.interactivemedia.v3.api.AdsManager;
 import com.google.ads.interactivemedia.v3.api.AdsManagerLoadedEvent;
+import com.google.ads.interactivemedia.v3.api.AdsRenderingSettings;
 import com.google.ads.interactivemedia.v3.api.AdsRequest;
 import com.google.ads.interactivemedia.v3.api.ImaSdkFactory;
 import com.google.ads.interactivemedia.v3.api.ImaSdkSettings;
@@ -32,7 +36,9 @@ import com.google.ads.interactivemedia.v3.api.player.VideoAdPlayer.VideoAdPlayer
 import com.google.ads.interactivemedia.v3.api.player.VideoProgressUpdate;
 import com.google.ads.interactivemedia.v3.samples.audioplayerexample.AudioPlayerService.SharedAudioPlayer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Takes control of audio playback from the AudioPlayerService to play some ads and then returns
@@ -41,18 +47,33 @@ import java.util.List;
 public final class ImaService implements AdErrorListener, AdEventListener, AdsLoadedListener {
 
   private static final String LOGGING_TAG = "ImaService";
+  private static final long PROGRESS_GRANULARITY_MS = 100;
+
+  private static boolean isImaSdkInitialized;
 
   private AdsLoader adsLoader;
   private AdsManager adsManager;
   private AdMediaInfo currentAd;
-  private ImaProgressTracker progressTracker;
+  // Ads already reported to the SDK as ended. The end of an ad may be detected both by the player
+  // and by the SDK stopping it, but each ad must only be reported once.
+  private final Set<AdMediaInfo> endedAds = new HashSet<>();
+  private final ImaProgressTracker progressTracker;
+  private CompanionSlotManager companionSlots;
   private final Context context;
   private final SharedAudioPlayer sharedAudioPlayer;
   private final ExoPlayer exoPlayer;
   private final List<VideoAdPlayerCallback> callbacks;
   private final ImaSdkFactory sdkFactory;
-  private final DefaultDataSource.Factory dataSourceFactory;
+  // Reads ad media through the disk cache, so repeated creatives don't have to be downloaded again.
+  private final DataSource.Factory dataSourceFactory;
+  // Reuse progress updates between polls, since the SDK polls for progress several times a second.
+  private final ProgressUpdateCache adProgressCache =
+      new ProgressUpdateCache(PROGRESS_GRANULARITY_MS);
+  private final ProgressUpdateCache contentProgressCache =
+      new ProgressUpdateCache(PROGRESS_GRANULARITY_MS);
   public ImaVideoAdPlayer imaVideoAdPlayer = new ImaVideoAdPlayer();
+  // Measures the latencies ad breaks add to playback.
+  private final AdMetricsRecorder adMetrics = new AdMetricsRecorder();
 
   @UnstableApi
   ImaService(
@@ -64,20 +85,29 @@ public final class ImaService implements AdErrorListener, AdEventListener, AdsLo
     this.exoPlayer = sharedAudioPlayer.getPlayer();
     this.callbacks = new ArrayList<>();
     this.sdkFactory = ImaSdkFactory.getInstance();
-    this.dataSourceFactory = dataSourceFactory;
+    this.dataSourceFactory =
+        AdMediaCache.getInstance(context).createDataSourceFactory(dataSourceFactory);
+    this.progressTracker = new ImaProgressTracker(imaVideoAdPlayer);
     sharedAudioPlayer.addAnalyticsListener(new ImaListener());
   }
 
   /**
    * Initializes the ImaService. Note: Ad playback with CompanionAds requires an AdDisplayContainer
-   * from the MainActivity.
+   * from the MainActivity, with the slots of {@code companionSlots} set on it.
    */
-  public void init(AdDisplayContainer adDisplayContainer) {
+  public void init(AdDisplayContainer adDisplayContainer, CompanionSlotManager companionSlots) {
+    ensureImaSdkInitialized(context);
+    this.companionSlots = companionSlots;
+    companionSlots.setListener(
+        (widthDp, heightDp, latencyMs) ->
+            Log.i(
+                LOGGING_TAG,
+                "Companion " + widthDp + "x" + heightDp + " rendered in " + latencyMs + " ms"));
     adsLoader = sdkFactory.createAdsLoader(context, getImaSdkSettings(), adDisplayContainer);
     adsLoader.addAdErrorListener(this);
     adsLoader.addAdsLoadedListener(this);
 
-    progressTracker = new ImaProgressTracker(imaVideoAdPlayer);
+    imaVideoAdPlayer.addCallback(adMetrics);
   }
 
   public void requestAds(String adTagUrl) {
@@ -85,16 +115,24 @@ public final class ImaService implements AdErrorListener, AdEventListener, AdsLo
     request.setAdTagUrl(adTagUrl);
     // The ContentProgressProvider is only needed for scheduling ads with VMAP ad requests
     request.setContentProgressProvider(
-        () -> new VideoProgressUpdate(exoPlayer.getCurrentPosition(), exoPlayer.getDuration()));
+        () -> contentProgressCache.get(exoPlayer.getCurrentPosition(), exoPlayer.getDuration()));
+    adMetrics.onAdsRequested();
     adsLoader.requestAds(request);
   }
 
   @Override
   public void onAdsManagerLoaded(AdsManagerLoadedEvent adsManagerLoadedEvent) {
     adsManager = adsManagerLoadedEvent.getAdsManager();
+    endedAds.clear();
+    adMetrics.onAdsLoaded();
+    adsManager.addAdEventListener(adMetrics);
+    adsManager.addAdEventListener(companionSlots);
     adsManager.addAdErrorListener(this);
     adsManager.addAdEventListener(this);
-    adsManager.init();
+    AdsRenderingSettings adsRenderingSettings = sdkFactory.createAdsRenderingSettings();
+    // Let the SDK call loadAd() for the next ad while the current one plays, so it can be queued.
+    adsRenderingSettings.setEnablePreloading(true);
+    adsManager.init(adsRenderingSettings);
   }
 
   @Override
@@ -118,6 +156,10 @@ public final class ImaService implements AdErrorListener, AdEventListener, AdsLo
         sharedAudioPlayer.release();
         break;
       case ALL_ADS_COMPLETED:
+        logAdMediaCacheStats();
+        adMetrics.export(
+            (metricName, histogram) ->
+                Log.i(LOGGING_TAG, "Ad metric " + metricName + ": " + histogram));
         if (adsManager != null) {
           adsManager.destroy();
           adsManager = null;
@@ -128,17 +170,28 @@ public final class ImaService implements AdErrorListener, AdEventListener, AdsLo
     }
   }
 
+  private void logAdMediaCacheStats() {
+    AdMediaCache adMediaCache = AdMediaCache.getInstance(context);
+    Log.i(
+        LOGGING_TAG,
+        "Ad media cache bytes read: "
+            + adMediaCache.getCachedBytesRead()
+            + ", from the network: "
+            + adMediaCache.getUpstreamBytesRead());
+  }
+
   /** Allows IMA to tell the custom player what to do. */
   class ImaVideoAdPlayer implements VideoAdPlayer {
     @Override
+    @UnstableApi
     public void loadAd(AdMediaInfo adMediaInfo, AdPodInfo adPodInfo) {
-      // If implementing preloading, we would pass the url back to the audio player here.
+      // Start buffering the ad now, so that it plays without a gap after the previous one.
+      sharedAudioPlayer.queueAd(adMediaInfo, createAdMediaSource(adMediaInfo));
     }
 
     @Override
     @UnstableApi
     public void playAd(AdMediaInfo adMediaInfo) {
-      String url = adMediaInfo.getUrl();
       progressTracker.start();
       if (currentAd == adMediaInfo) {
         for (VideoAdPlayerCallback callback : callbacks) {
@@ -146,17 +199,25 @@ public final class ImaService implements AdErrorListener, AdEventListener, AdsLo
         }
       } else {
         currentAd = adMediaInfo;
+        adProgressCache.reset();
         for (VideoAdPlayerCallback callback : callbacks) {
           callback.onPlay(adMediaInfo);
         }
-        MediaItem mediaItem = new MediaItem.Builder().setUri(Uri.parse(url)).build();
-        MediaSource mediaSource =
-            new ProgressiveMediaSource.Factory(dataSourceFactory).createMediaSource(mediaItem);
-        sharedAudioPlayer.prepare(mediaSource);
+        if (!sharedAudioPlayer.isAdQueued(adMediaInfo)) {
+          sharedAudioPlayer.queueAd(adMediaInfo, createAdMediaSource(adMediaInfo));
+        }
+        sharedAudioPlayer.playAd(adMediaInfo);
       }
       exoPlayer.setPlayWhenReady(true);
     }
 
+    @UnstableApi
+    private MediaSource createAdMediaSource(AdMediaInfo adMediaInfo) {
+      MediaItem mediaItem =
+          new MediaItem.Builder().setUri(Uri.parse(adMediaInfo.getUrl())).build();
+      return new ProgressiveMediaSource.Factory(dataSourceFactory).createMediaSource(mediaItem);
+    }
+
     @Override
     public void pauseAd(AdMediaInfo adMediaInfo) {
       exoPlayer.setPlayWhenReady(false);
@@ -169,8 +230,13 @@ public final class ImaService implements AdErrorListener, AdEventListener, AdsLo
     @Override
     public void stopAd(AdMediaInfo adMediaInfo) {
       progressTracker.stop();
-      exoPlayer.setPlayWhenReady(false);
+      // If the player already moved on to the next ad of the pod, keep it playing.
+      if (sharedAudioPlayer.isCurrentAd(adMediaInfo)) {
+        exoPlayer.setPlayWhenReady(false);
+      }
       notifyEnded();
+      // Stop reporting the player state to the SDK, since it changes as the content resumes.
+      currentAd = null;
     }
 
     @Override
@@ -194,12 +260,15 @@ public final class ImaService implements AdErrorListener, AdEventListener, AdsLo
         return null;
       }
 
-      return new VideoProgressUpdate(exoPlayer.getCurrentPosition(), exoPlayer.getDuration());
+      return adProgressCache.get(exoPlayer.getCurrentPosition(), exoPlayer.getDuration());
     }
 
     void sendProgressUpdate() {
-      for (VideoAdPlayerCallback callback : callbacks) {
-        callback.onAdProgress(currentAd, getAdProgress());
+      // Read the progress once for all callbacks. Indexed iteration avoids allocating an
+      // iterator on every update.
+      VideoProgressUpdate progressUpdate = getAdProgress();
+      for (int i = 0; i < callbacks.size(); i++) {
+        callbacks.get(i).onAdProgress(currentAd, progressUpdate);
       }
     }
 
@@ -216,6 +285,15 @@ public final class ImaService implements AdErrorListener, AdEventListener, AdsLo
   /** Encapsulates callbacks for ExoPlayer changes, and lets IMA know the state of playback */
   @UnstableApi
   class ImaListener implements AnalyticsListener {
+    @Override
+    public void onMediaItemTransition(
+        EventTime eventTime, MediaItem mediaItem, @Player.MediaItemTransitionReason int reason) {
+      if (currentAd != null && reason == Player.MEDIA_ITEM_TRANSITION_REASON_AUTO) {
+        // The ad completed and the player moved on to the next queued ad.
+        notifyEnded();
+      }
+    }
+
     @Override
     public void onPlaybackStateChanged(EventTime eventTime, int playbackState) {
       if (currentAd == null) {
@@ -271,6 +349,9 @@ public final class ImaService implements AdErrorListener, AdEventListener, AdsLo
   }
 
   private void notifyEnded() {
+    if (currentAd == null || !endedAds.add(currentAd)) {
+      return;
+    }
     for (VideoAdPlayerCallback callback : callbacks) {
       callback.onEnded(currentAd);
     }
@@ -321,8 +402,33 @@ public final class ImaService implements AdErrorListener, AdEventListener, AdsLo
     }
   }
 
+  /**
+   * Schedules the IMA SDK initialization for when the main thread is first idle, so it doesn't
+   * hold up the app startup. The SDK has to be initialized on the main thread.
+   */
   public static void initializeIMASDK(Context context) {
-    ImaSdkFactory.getInstance().initialize(context, getImaSdkSettings());
+    Context applicationContext = context.getApplicationContext();
+    Looper.getMainLooper()
+        .getQueue()
+        .addIdleHandler(
+            () -> {
+              ensureImaSdkInitialized(applicationContext);
+              // Only run once.
+              return false;
+            });
+  }
+
+  /** Initializes the IMA SDK right away if it isn't yet. Must be called on the main thread. */
+  private static void ensureImaSdkInitialized(Context context) {
+    if (isImaSdkInitialized) {
+      return;
+    }
+    isImaSdkInitialized = true;
+    long startTimeMs = SystemClock.elapsedRealtime();
+    ImaSdkFactory.getInstance().initialize(context.getApplicationContext(), getImaSdkSettings());
+    Log.d(
+        LOGGING_TAG,
+        "IMA SDK initialized in " + (SystemClock.elapsedRealtime() - startTimeMs) + " ms");
   }
 
   private static ImaSdkSettings getImaSdkSettings() {
@@ -1,14 +1,11 @@
 package com.google.ads.interactivemedia.v3.samples.audioplayerexample;
 
-import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.drawable.BitmapDrawable;
 import android.net.Uri;
 import android.os.Bundle;
 import android.support.v4.media.MediaDescriptionCompat;
 import android.support.v4.media.MediaMetadataCompat;
-import androidx.annotation.DrawableRes;
-import androidx.core.content.res.ResourcesCompat;
+import androidx.media3.common.util.UnstableApi;
 
 /** Helper to provide a list of sample audio files for the app. */
 public final class Samples {
@@ -62,9 +59,14 @@ public final class Samples {
     return SAMPLES;
   }
 
-  public static MediaDescriptionCompat getMediaDescription(Context context, Sample sample) {
+  /**
+   * Returns the description of a sample, with its artwork taken from {@code artworkCache} so it is
+   * only decoded once across descriptions.
+   */
+  @UnstableApi
+  static MediaDescriptionCompat getMediaDescription(Sample sample, ArtworkCache artworkCache) {
     Bundle extras = new Bundle();
-    Bitmap bitmap = getBitmap(context, sample.bitmapResource);
+    Bitmap bitmap = artworkCache.get(sample.bitmapResource);
     extras.putParcelable(MediaMetadataCompat.METADATA_KEY_ALBUM_ART, bitmap);
     extras.putParcelable(MediaMetadataCompat.METADATA_KEY_DISPLAY_ICON, bitmap);
     return new MediaDescriptionCompat.Builder()
@@ -76,11 +78,5 @@ public final class Samples {
         .build();
   }
 
-  public static Bitmap getBitmap(Context context, @DrawableRes int bitmapResource) {
-    return ((BitmapDrawable)
-            ResourcesCompat.getDrawable(context.getResources(), bitmapResource, context.getTheme()))
-        .getBitmap();
-  }
-
   private Samples() {}
 }
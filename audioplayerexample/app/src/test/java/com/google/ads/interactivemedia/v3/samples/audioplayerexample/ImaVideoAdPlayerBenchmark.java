@@ -0,0 +1,98 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.audioplayerexample;
+
+import androidx.media3.datasource.DefaultDataSource;
+import com.google.ads.interactivemedia.v3.api.player.AdMediaInfo;
+import com.google.ads.interactivemedia.v3.api.player.VideoAdPlayer.VideoAdPlayerCallback;
+import com.google.ads.interactivemedia.v3.api.player.VideoProgressUpdate;
+import com.google.ads.interactivemedia.v3.samples.audioplayerexample.AudioPlayerService.SharedAudioPlayer;
+import com.google.ads.interactivemedia.v3.samples.audioplayerexample.ImaService.ImaVideoAdPlayer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Benchmarks the VideoAdPlayer callbacks of {@link ImaVideoAdPlayer}, running a scripted ad
+ * playback sequence against the service's player. Run it with {@code ./gradlew
+ * :app:testDebugUnitTest} and read the results from the test output.
+ *
+ * <p>The main looper is not idled while measuring, so the ads are queued on the player but never
+ * buffered, and only the work done by the adapter itself is measured.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class ImaVideoAdPlayerBenchmark {
+
+  private static final int WARMUP_RUNS = 2000;
+  private static final int MEASURED_RUNS = 10000;
+
+  /** An SDK callback that ignores all events. */
+  private static final class NoOpCallback implements VideoAdPlayerCallback {
+    @Override
+    public void onAdProgress(AdMediaInfo adMediaInfo, VideoProgressUpdate videoProgressUpdate) {}
+
+    @Override
+    public void onBuffering(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onContentComplete() {}
+
+    @Override
+    public void onEnded(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onError(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onLoaded(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onPause(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onPlay(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onResume(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onVolumeChanged(AdMediaInfo adMediaInfo, int percentage) {}
+  }
+
+  @Test
+  public void benchmarkAdPlayback() {
+    AudioPlayerService service = Robolectric.buildService(AudioPlayerService.class).create().get();
+    SharedAudioPlayer sharedAudioPlayer = service.new SharedAudioPlayer();
+    ImaVideoAdPlayer adPlayer =
+        new ImaService(service, new DefaultDataSource.Factory(service), sharedAudioPlayer)
+            .imaVideoAdPlayer;
+    // The SDK registers a few callbacks of its own.
+    for (int i = 0; i < 3; i++) {
+      adPlayer.addCallback(new NoOpCallback());
+    }
+
+    new CallbackBenchmark()
+        .measure(
+            "ImaVideoAdPlayer",
+            WARMUP_RUNS,
+            MEASURED_RUNS,
+            benchmark -> {
+              // Each ad is reported as ended once, so every run plays a new ad.
+              AdMediaInfo adMediaInfo = new AdMediaInfo("file:///ad.mp3");
+              sharedAudioPlayer.claim();
+              benchmark.run("loadAd", () -> adPlayer.loadAd(adMediaInfo, /* adPodInfo= */ null));
+              benchmark.run("playAd", () -> adPlayer.playAd(adMediaInfo));
+              benchmark.run("onAdProgress fan-out", adPlayer::sendProgressUpdate);
+              benchmark.run("getAdProgress", adPlayer::getAdProgress);
+              benchmark.run("getVolume", adPlayer::getVolume);
+              benchmark.run("pauseAd", () -> adPlayer.pauseAd(adMediaInfo));
+              benchmark.run("playAd (resume)", () -> adPlayer.playAd(adMediaInfo));
+              benchmark.run("stopAd", () -> adPlayer.stopAd(adMediaInfo));
+              // Removes the ad from the player's playlist.
+              sharedAudioPlayer.release();
+            });
+  }
+}
@@ -107,6 +107,7 @@ public class VideoAdPlayerAdapter implements VideoAdPlayer {
   @Override
   public int getVolume() {
     return audioManager.getStreamVolume(AudioManager.STREAM_MUSIC)
+        * 100
         / audioManager.getStreamMaxVolume(AudioManager.STREAM_MUSIC);
   }
 
@@ -139,8 +140,9 @@ public class VideoAdPlayerAdapter implements VideoAdPlayer {
   }
 
   private void notifyImaSdkAboutAdProgress(VideoProgressUpdate adProgress) {
-    for (VideoAdPlayer.VideoAdPlayerCallback callback : videoAdPlayerCallbacks) {
-      callback.onAdProgress(loadedAdMediaInfo, adProgress);
+    // Indexed iteration avoids allocating an iterator on every progress update.
+    for (int i = 0; i < videoAdPlayerCallbacks.size(); i++) {
+      videoAdPlayerCallbacks.get(i).onAdProgress(loadedAdMediaInfo, adProgress);
     }
   }
 
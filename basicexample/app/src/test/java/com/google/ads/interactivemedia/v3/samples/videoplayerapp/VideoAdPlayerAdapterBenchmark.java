@@ -0,0 +1,113 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.videoplayerapp;
+
+import android.content.Context;
+import android.media.AudioManager;
+import android.widget.VideoView;
+import com.google.ads.interactivemedia.v3.api.player.AdMediaInfo;
+import com.google.ads.interactivemedia.v3.api.player.VideoAdPlayer.VideoAdPlayerCallback;
+import com.google.ads.interactivemedia.v3.api.player.VideoProgressUpdate;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * Benchmarks the VideoAdPlayer callbacks of {@link VideoAdPlayerAdapter}, running a scripted ad
+ * playback sequence against a fake video view. Run it with {@code ./gradlew :app:testDebugUnitTest}
+ * and read the results from the test output.
+ *
+ * <p>Ad progress is reported to the SDK from a timer thread, so the progress fan-out is not
+ * measured here.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class VideoAdPlayerAdapterBenchmark {
+
+  private static final int WARMUP_RUNS = 2000;
+  private static final int MEASURED_RUNS = 10000;
+  private static final int AD_DURATION_MS = 30000;
+  private static final int POLLING_TIME_MS = 250;
+
+  /** A video view whose playback position is set by the benchmark. */
+  private static final class FakeVideoView extends VideoView {
+    private int currentPosition;
+
+    FakeVideoView(Context context) {
+      super(context);
+    }
+
+    @Override
+    public int getCurrentPosition() {
+      return currentPosition;
+    }
+  }
+
+  /** An SDK callback that ignores all events. */
+  private static final class NoOpCallback implements VideoAdPlayerCallback {
+    @Override
+    public void onAdProgress(AdMediaInfo adMediaInfo, VideoProgressUpdate videoProgressUpdate) {}
+
+    @Override
+    public void onBuffering(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onContentComplete() {}
+
+    @Override
+    public void onEnded(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onError(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onLoaded(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onPause(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onPlay(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onResume(AdMediaInfo adMediaInfo) {}
+
+    @Override
+    public void onVolumeChanged(AdMediaInfo adMediaInfo, int percentage) {}
+  }
+
+  @Test
+  public void benchmarkAdPlayback() {
+    Context context = RuntimeEnvironment.getApplication();
+    FakeVideoView videoView = new FakeVideoView(context);
+    VideoAdPlayerAdapter adapter =
+        new VideoAdPlayerAdapter(videoView, context.getSystemService(AudioManager.class));
+    // The SDK registers a few callbacks of its own.
+    for (int i = 0; i < 3; i++) {
+      adapter.addCallback(new NoOpCallback());
+    }
+    AdMediaInfo adMediaInfo = new AdMediaInfo("https://example.com/ad.mp4");
+
+    new CallbackBenchmark()
+        .measure(
+            "VideoAdPlayerAdapter",
+            WARMUP_RUNS,
+            MEASURED_RUNS,
+            benchmark -> {
+              videoView.currentPosition = 0;
+              benchmark.run("loadAd", () -> adapter.loadAd(adMediaInfo, /* adPodInfo= */ null));
+              benchmark.run("playAd", () -> adapter.playAd(adMediaInfo));
+              for (int position = POLLING_TIME_MS;
+                  position < AD_DURATION_MS;
+                  position += POLLING_TIME_MS) {
+                videoView.currentPosition = position;
+                benchmark.run("getAdProgress", adapter::getAdProgress);
+              }
+              benchmark.run("getVolume", adapter::getVolume);
+              benchmark.run("pauseAd", () -> adapter.pauseAd(adMediaInfo));
+              benchmark.run("stopAd", () -> adapter.stopAd(adMediaInfo));
+            });
+  }
+}
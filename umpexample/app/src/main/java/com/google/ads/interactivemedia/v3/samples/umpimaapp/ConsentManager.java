@@ -1,6 +1,8 @@
 package com.google.ads.interactivemedia.v3.samples.umpimaapp;
 
 import android.app.Activity;
+import android.content.Context;
+import android.content.SharedPreferences;
 import com.google.android.ump.ConsentDebugSettings;
 import com.google.android.ump.ConsentForm.OnConsentFormDismissedListener;
 import com.google.android.ump.ConsentInformation;
@@ -8,6 +10,7 @@ import com.google.android.ump.ConsentInformation.PrivacyOptionsRequirementStatus
 import com.google.android.ump.ConsentRequestParameters;
 import com.google.android.ump.FormError;
 import com.google.android.ump.UserMessagingPlatform;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manages app user's consent using the Google User Messaging Platform SDK or a Consent Management
@@ -17,8 +20,23 @@ import com.google.android.ump.UserMessagingPlatform;
  * Google consent management requirements for serving ads in the EEA and UK.
  */
 public class ConsentManager {
+  private static final String PREFERENCES_NAME = "consent_manager";
+  private static final String KEY_LAST_GATHERED_TIME_MS = "last_gathered_time_ms";
+
+  // How long consent gathered in a previous session is trusted for requesting ads before the app
+  // waits for consent to be gathered again.
+  private static final long MAX_CONSENT_AGE_MS = TimeUnit.HOURS.toMillis(24);
+
   private final Activity activity;
   private final ConsentInformation consentInformation;
+  private final SharedPreferences preferences;
+  private boolean isGatheringComplete;
+
+  // Consent management platforms store the IAB consent strings in the default shared preferences.
+  private final SharedPreferences iabPreferences;
+  // Held in a field, since shared preferences only keep weak references to their listeners.
+  private final SharedPreferences.OnSharedPreferenceChangeListener iabPreferencesListener;
+  private ConsentSnapshot consentSnapshot;
 
   /** Interface definition for a callback to be invoked when consent gathering is complete. */
   public interface OnConsentGatheringCompleteListener {
@@ -29,11 +47,55 @@ public class ConsentManager {
   public ConsentManager(Activity activity) {
     this.activity = activity;
     this.consentInformation = UserMessagingPlatform.getConsentInformation(activity);
+    this.preferences = activity.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    this.iabPreferences =
+        activity.getSharedPreferences(
+            activity.getPackageName() + "_preferences", Context.MODE_PRIVATE);
+    this.iabPreferencesListener =
+        (sharedPreferences, key) -> {
+          if (key == null || key.startsWith("IABTCF_") || key.startsWith("IABGPP_")) {
+            invalidateConsentSnapshot();
+          }
+        };
+    iabPreferences.registerOnSharedPreferenceChangeListener(iabPreferencesListener);
+  }
+
+  /**
+   * Returns the current consent state. It is only read again after the consent changes, so this is
+   * cheap enough to call for every ad request.
+   */
+  public ConsentSnapshot getConsentSnapshot() {
+    if (consentSnapshot == null) {
+      consentSnapshot = ConsentSnapshot.capture(consentInformation, iabPreferences);
+    }
+    return consentSnapshot;
+  }
+
+  private void invalidateConsentSnapshot() {
+    consentSnapshot = null;
+  }
+
+  /** Stops listening for consent changes. */
+  public void release() {
+    iabPreferences.unregisterOnSharedPreferenceChangeListener(iabPreferencesListener);
+  }
+
+  /**
+   * Returns true if consent has been gathered in this session, or was gathered recently enough in
+   * a previous session that ads can be requested without waiting for {@link #gatherConsent}.
+   */
+  public boolean isConsentUpToDate() {
+    if (isGatheringComplete) {
+      return true;
+    }
+    long lastGatheredTimeMs = preferences.getLong(KEY_LAST_GATHERED_TIME_MS, 0);
+    long ageMs = System.currentTimeMillis() - lastGatheredTimeMs;
+    return lastGatheredTimeMs > 0 && ageMs >= 0 && ageMs < MAX_CONSENT_AGE_MS;
   }
 
   /** Returns true if the app has the user consent for showing ads. */
   public boolean canRequestAds() {
-    return consentInformation.canRequestAds();
+    return getConsentSnapshot().canRequestAds();
   }
 
   // [START is_privacy_options_required]
@@ -47,6 +109,19 @@ public class ConsentManager {
 
   /** Load remote updates of consent messages and gather previously cached user consent. */
   public void gatherConsent(OnConsentGatheringCompleteListener onConsentGatheringCompleteListener) {
+    OnConsentGatheringCompleteListener listener =
+        error -> {
+          isGatheringComplete = true;
+          invalidateConsentSnapshot();
+          if (error == null) {
+            preferences
+                .edit()
+                .putLong(KEY_LAST_GATHERED_TIME_MS, System.currentTimeMillis())
+                .apply();
+          }
+          onConsentGatheringCompleteListener.consentGatheringComplete(error);
+        };
+
     // For testing purposes, you can force a DebugGeography of EEA or NOT_EEA.
     ConsentDebugSettings debugSettings =
         new ConsentDebugSettings.Builder(activity)
@@ -75,11 +150,11 @@ public class ConsentManager {
         params,
         () -> // Called when consent information is successfully updated.
             // [START_EXCLUDE silent]
-            loadAndShowConsentFormIfRequired(activity, onConsentGatheringCompleteListener),
+            loadAndShowConsentFormIfRequired(activity, listener),
         // [END_EXCLUDE]
         requestConsentError -> // Called when there's an error updating consent information.
             // [START_EXCLUDE silent]
-            onConsentGatheringCompleteListener.consentGatheringComplete(requestConsentError));
+            listener.consentGatheringComplete(requestConsentError));
     // [END_EXCLUDE]
     // [END request_consent_info_update]
   }
@@ -101,8 +176,15 @@ public class ConsentManager {
   /** Shows a form to app users for collecting their consent. */
   public void showPrivacyOptionsForm(
       Activity activity, OnConsentFormDismissedListener onConsentFormDismissedListener) {
+    OnConsentFormDismissedListener listener =
+        formError -> {
+          // The user may have changed their consent choices.
+          invalidateConsentSnapshot();
+          onConsentFormDismissedListener.onConsentFormDismissed(formError);
+        };
+
     // [START present_privacy_options_form]
-    UserMessagingPlatform.showPrivacyOptionsForm(activity, onConsentFormDismissedListener);
+    UserMessagingPlatform.showPrivacyOptionsForm(activity, listener);
     // [END present_privacy_options_form]
   }
 }
@@ -0,0 +1,92 @@
+// Copyright 2026 Google LLC
+
+package com.google.ads.interactivemedia.v3.samples.umpimaapp;
+
+import android.content.SharedPreferences;
+import android.net.Uri;
+import com.google.android.ump.ConsentInformation;
+
+/**
+ * The consent state of the user at one point in time. It is read once from {@link
+ * ConsentInformation} and the IAB strings stored by the consent management platform, so that ad
+ * requests don't have to read them again. {@link ConsentManager} takes a new snapshot whenever the
+ * consent changes.
+ */
+public final class ConsentSnapshot {
+
+  // Keys under which consent management platforms store the IAB TCF and GPP consent signals.
+  // https://github.com/InteractiveAdvertisingBureau/GDPR-Transparency-and-Consent-Framework
+  static final String KEY_TC_STRING = "IABTCF_TCString";
+  static final String KEY_GDPR_APPLIES = "IABTCF_gdprApplies";
+  static final String KEY_PURPOSE_CONSENTS = "IABTCF_PurposeConsents";
+  static final String KEY_GPP_STRING = "IABGPP_HDR_GppString";
+  static final String KEY_GPP_SECTION_IDS = "IABGPP_GppSID";
+
+  private final boolean canRequestAds;
+  private final boolean gdprApplies;
+  private final boolean isLimitedAds;
+  private final String tcString;
+  private final String gppString;
+  private final String gppSectionIds;
+
+  private ConsentSnapshot(
+      boolean canRequestAds,
+      boolean gdprApplies,
+      boolean isLimitedAds,
+      String tcString,
+      String gppString,
+      String gppSectionIds) {
+    this.canRequestAds = canRequestAds;
+    this.gdprApplies = gdprApplies;
+    this.isLimitedAds = isLimitedAds;
+    this.tcString = tcString;
+    this.gppString = gppString;
+    this.gppSectionIds = gppSectionIds;
+  }
+
+  /** Reads the current consent state. */
+  static ConsentSnapshot capture(
+      ConsentInformation consentInformation, SharedPreferences iabPreferences) {
+    boolean canRequestAds = consentInformation.canRequestAds();
+    boolean gdprApplies = iabPreferences.getInt(KEY_GDPR_APPLIES, 0) == 1;
+    // Without consent for purpose 1, storing and accessing information on the device, only
+    // limited ads can be served.
+    String purposeConsents = iabPreferences.getString(KEY_PURPOSE_CONSENTS, "");
+    boolean hasPurposeOneConsent = !purposeConsents.isEmpty() && purposeConsents.charAt(0) == '1';
+    return new ConsentSnapshot(
+        canRequestAds,
+        gdprApplies,
+        canRequestAds && gdprApplies && !hasPurposeOneConsent,
+        iabPreferences.getString(KEY_TC_STRING, null),
+        iabPreferences.getString(KEY_GPP_STRING, null),
+        iabPreferences.getString(KEY_GPP_SECTION_IDS, null));
+  }
+
+  /** Returns true if the app has the user consent for requesting ads. */
+  public boolean canRequestAds() {
+    return canRequestAds;
+  }
+
+  /** Returns the ad tag URL with the consent signals of the snapshot added as parameters. */
+  public String appendToAdTagUrl(String adTagUrl) {
+    StringBuilder url = new StringBuilder(adTagUrl);
+    if (tcString != null) {
+      appendParameter(url, "gdpr", gdprApplies ? "1" : "0");
+      appendParameter(url, "gdpr_consent", tcString);
+    }
+    if (gppString != null) {
+      appendParameter(url, "gpp", gppString);
+      if (gppSectionIds != null) {
+        appendParameter(url, "gpp_sid", gppSectionIds.replace('_', ','));
+      }
+    }
+    if (isLimitedAds) {
+      appendParameter(url, "ltd", "1");
+    }
+    return url.toString();
+  }
+
+  private static void appendParameter(StringBuilder url, String name, String value) {
+    url.append(url.indexOf("?") < 0 ? '?' : '&').append(name).append('=').append(Uri.encode(value));
+  }
+}
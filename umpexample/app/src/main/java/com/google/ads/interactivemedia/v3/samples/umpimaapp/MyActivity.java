@@ -5,6 +5,7 @@ package com.google.ads.interactivemedia.v3.samples.umpimaapp;
 import android.content.Context;
 import android.media.AudioManager;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
@@ -65,9 +66,16 @@ public class MyActivity extends AppCompatActivity {
   private VideoAdPlayerAdapter videoAdPlayerAdapter;
   private ConsentManager consentManager;
 
+  // Time the activity was created, used to log how long it takes until ads are requested.
+  private long createdTimeMs;
+
+  // Ad tag URL that is waiting for consent gathering to complete before it is requested.
+  private String pendingAdTagUrl;
+
   @Override
   protected void onCreate(Bundle savedInstanceState) {
     super.onCreate(savedInstanceState);
+    createdTimeMs = SystemClock.elapsedRealtime();
     setContentView(R.layout.activity_my);
 
     // Initialize the IMA SDK as early as possible when the app starts. If your app already
@@ -91,6 +99,12 @@ public class MyActivity extends AppCompatActivity {
     Button privacyButton = findViewById(R.id.privacyButton);
 
     consentManager = new ConsentManager(this);
+
+    // Create the ad display container and ads loader while consent is gathered, even if consent
+    // was declined before, so the SDK is ready by the time consent is known. Only the ad request
+    // itself is gated on consent.
+    initializeImaSdk();
+
     // [START can_request_ads]
     consentManager.gatherConsent(
         consentError -> {
@@ -103,10 +117,18 @@ public class MyActivity extends AppCompatActivity {
                         "%s: %s", consentError.getErrorCode(), consentError.getMessage()));
           }
 
+          // Request the ads that were waiting for consent, if consent allows it.
+          String adTagUrl = pendingAdTagUrl;
+          pendingAdTagUrl = null;
           if (consentManager.canRequestAds()) {
-            initializeImaSdk();
+            if (adTagUrl != null) {
+              requestAds(adTagUrl);
+            }
           } else {
             Log.i(LOGTAG, "Consent not available to request ads");
+            if (adTagUrl != null) {
+              resumeContent();
+            }
           }
           // [START_EXCLUDE]
 
@@ -119,11 +141,6 @@ public class MyActivity extends AppCompatActivity {
           // [END add_privacy_options]
           // [END_EXCLUDE]
         });
-
-    // This sample attempts to load ads using consent obtained in the previous session.
-    if (consentManager.canRequestAds()) {
-      initializeImaSdk();
-    }
     // [END can_request_ads]
 
     privacyButton.setOnClickListener(
@@ -137,6 +154,12 @@ public class MyActivity extends AppCompatActivity {
                 }));
   }
 
+  @Override
+  protected void onDestroy() {
+    consentManager.release();
+    super.onDestroy();
+  }
+
   // [START request_ads]
   private void initializeImaSdk() {
     if (adDisplayContainer != null) {
@@ -257,11 +280,26 @@ public class MyActivity extends AppCompatActivity {
     playButton.setOnClickListener(
         view -> {
           videoPlayer.setVideoPath(SAMPLE_VIDEO_URL);
-          requestAds(SAMPLE_VAST_TAG_URL);
           view.setVisibility(View.GONE);
+          // This sample requests ads right away using consent obtained in a recent session, and
+          // otherwise waits for consent gathering to complete.
+          if (consentManager.isConsentUpToDate()) {
+            requestAdsIfAllowed(SAMPLE_VAST_TAG_URL);
+          } else {
+            pendingAdTagUrl = SAMPLE_VAST_TAG_URL;
+          }
         });
   }
 
+  private void requestAdsIfAllowed(String adTagUrl) {
+    if (consentManager.canRequestAds()) {
+      requestAds(adTagUrl);
+    } else {
+      Log.i(LOGTAG, "Consent not available to request ads, playing content");
+      resumeContent();
+    }
+  }
+
   private void pauseContentForAds() {
     Log.i(LOGTAG, "pauseContentForAds");
     savedPosition = videoPlayer.getCurrentPosition();
@@ -290,7 +328,9 @@ public class MyActivity extends AppCompatActivity {
   private void requestAds(String adTagUrl) {
     // Create the ads request.
     AdsRequest request = sdkFactory.createAdsRequest();
-    request.setAdTagUrl(adTagUrl);
+    // Pass the consent signals with the request, using the snapshot taken when consent last
+    // changed instead of reading them again for every request.
+    request.setAdTagUrl(consentManager.getConsentSnapshot().appendToAdTagUrl(adTagUrl));
     request.setContentProgressProvider(
         () -> {
           if (videoPlayer.getDuration() <= 0) {
@@ -302,6 +342,9 @@ public class MyActivity extends AppCompatActivity {
 
     // Request the ad. After the ad is loaded, onAdsManagerLoaded() will be called.
     adsLoader.requestAds(request);
+    Log.i(
+        LOGTAG,
+        "Requested ads " + (SystemClock.elapsedRealtime() - createdTimeMs) + " ms after startup");
   }
 
   private ImaSdkSettings getImaSdkSettings() {